@@ -0,0 +1,4 @@
+curl "http://localhost:8080/customers/customer-1/price-list?format=NDJSON"
+
+# expected response, one line per article:
+# {"articleId":"article-1","price":11.98}
@@ -0,0 +1,15 @@
+#!/bin/bash
+# Starts three instances on localhost sharing the catalog via consistent hashing.
+# Build first with ./mvnw package, then e.g. run calculateBasket against any of the ports.
+PEERS=http://localhost:8080,http://localhost:8081,http://localhost:8082
+
+for PORT in 8080 8081 8082; do
+  java -jar target/calculator-0.0.1-SNAPSHOT.jar \
+    --server.port=$PORT \
+    --sharding.enabled=true \
+    --sharding.self=http://localhost:$PORT \
+    --sharding.peers=$PEERS \
+    --snapshot.path=data/catalog-$PORT.snapshot &
+done
+
+wait
@@ -2,8 +2,10 @@ package digital.metro.pricing.calculator;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CalculatorApplication {
 
 	public static void main(String[] args) {
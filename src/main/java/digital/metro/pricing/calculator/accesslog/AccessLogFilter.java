@@ -0,0 +1,115 @@
+package digital.metro.pricing.calculator.accesslog;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hands a compact record of every request to the {@link AccessLogger}. Only a sampled share of the requests
+ * has its body cached for the log, and never more than {@code access-log.max-payload-length} bytes of it.
+ * Requests that go async are logged when the async request completes, with the final status and duration.
+ */
+@Component
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private AccessLogger accessLogger;
+    private double payloadSampleRate;
+    private int maxPayloadLength;
+
+    @Autowired
+    public AccessLogFilter(AccessLogger accessLogger,
+                           @Value("${access-log.payload-sample-rate:0.01}") double payloadSampleRate,
+                           @Value("${access-log.max-payload-length:1000}") int maxPayloadLength) {
+        this.accessLogger = accessLogger;
+        this.payloadSampleRate = payloadSampleRate;
+        this.maxPayloadLength = maxPayloadLength;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        var loggedRequest = isPayloadSampled() ? new ContentCachingRequestWrapper(request, maxPayloadLength) : request;
+        try {
+            filterChain.doFilter(loggedRequest, response);
+        } finally {
+            var logOnCompletion = new LogOnCompletion(request, response, start, getPayload(loggedRequest));
+            if (isAsyncStarted(request))
+                request.getAsyncContext().addListener(logOnCompletion);
+            else
+                logOnCompletion.log();
+        }
+    }
+
+    // region Privates
+
+    private boolean isPayloadSampled() {
+        return payloadSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < payloadSampleRate;
+    }
+
+    private String getPayload(HttpServletRequest request) {
+        if (!(request instanceof ContentCachingRequestWrapper))
+            return null;
+
+        byte[] content = ((ContentCachingRequestWrapper) request).getContentAsByteArray();
+        return content.length == 0 ? null : new String(content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Captures the request line up front, since the request object may be recycled by the time an async
+     * request completes, and reads the status and duration when logging.
+     */
+    private class LogOnCompletion implements AsyncListener {
+        private final String method;
+        private final String uri;
+        private final String queryString;
+        private final HttpServletResponse response;
+        private final long start;
+        private final String payload;
+
+        LogOnCompletion(HttpServletRequest request, HttpServletResponse response, long start, String payload) {
+            this.method = request.getMethod();
+            this.uri = request.getRequestURI();
+            this.queryString = request.getQueryString();
+            this.response = response;
+            this.start = start;
+            this.payload = payload;
+        }
+
+        void log() {
+            accessLogger.log(new AccessLogRecord(System.currentTimeMillis(), method, uri, queryString,
+                    response.getStatus(), System.nanoTime() - start, payload));
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            log();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    // endregion Privates
+}
@@ -0,0 +1,19 @@
+package digital.metro.pricing.calculator.accesslog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What is kept of a request for the access log. Formatting is left to the writer thread.
+ */
+@Getter
+@AllArgsConstructor
+public class AccessLogRecord {
+    private long timestamp;
+    private String method;
+    private String uri;
+    private String queryString;
+    private int status;
+    private long durationNanos;
+    private String payload;
+}
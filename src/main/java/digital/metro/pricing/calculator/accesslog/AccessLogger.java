@@ -0,0 +1,138 @@
+package digital.metro.pricing.calculator.accesslog;
+
+import digital.metro.pricing.calculator.dto.AccessLogStatistics;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes access log records on a dedicated thread. Request threads only offer the record to a bounded queue;
+ * when the queue is full the record is dropped and counted instead of slowing the request down.
+ */
+@Slf4j
+@Component
+public class AccessLogger {
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("access");
+    private static final long POLL_TIMEOUT_MILLIS = 1000;
+
+    private final BlockingQueue<AccessLogRecord> queue;
+    private final AtomicLong droppedCount = new AtomicLong();
+    private long reportedDroppedCount;
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public AccessLogger(@Value("${access-log.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public void log(AccessLogRecord record) {
+        if (!queue.offer(record))
+            droppedCount.incrementAndGet();
+    }
+
+    public AccessLogStatistics getStatistics() {
+        return new AccessLogStatistics(queue.size(), droppedCount.get());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeRecords, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops taking new work and writes what is still queued before returning.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(POLL_TIMEOUT_MILLIS * 5);
+    }
+
+    // region Privates
+
+    private void writeRecords() {
+        try {
+            while (running || !queue.isEmpty()) {
+                var record = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (record != null)
+                    ACCESS_LOG.info(format(record));
+                reportDroppedRecords();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reportDroppedRecords() {
+        long dropped = droppedCount.get();
+        if (dropped != reportedDroppedCount) {
+            log.warn("Access log queue was full, dropped {} records ({} in total)", dropped - reportedDroppedCount, dropped);
+            reportedDroppedCount = dropped;
+        }
+    }
+
+    /**
+     * Formats a record as one line. The payload is written as a JSON string, so line breaks and quotes in a
+     * request body can neither split the record nor forge further records.
+     */
+    static String format(AccessLogRecord record) {
+        var line = new StringBuilder(128)
+                .append(Instant.ofEpochMilli(record.getTimestamp())).append(' ')
+                .append(record.getMethod()).append(' ')
+                .append(record.getUri());
+        if (record.getQueryString() != null)
+            line.append('?').append(record.getQueryString());
+        line.append(" status=").append(record.getStatus())
+                .append(" duration=").append(record.getDurationNanos() / 1000).append("us");
+        if (record.getPayload() != null)
+            appendQuoted(line.append(" payload="), record.getPayload());
+        return line.toString();
+    }
+
+    private static void appendQuoted(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029')
+                        line.append(String.format("\\u%04x", (int) c));
+                    else
+                        line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    // endregion Privates
+}
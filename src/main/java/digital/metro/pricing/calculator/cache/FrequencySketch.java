@@ -0,0 +1,78 @@
+package digital.metro.pricing.calculator.cache;
+
+/**
+ * A count-min sketch of 4-bit counters estimating how often a key was requested recently. All counters are
+ * halved once the number of recorded requests reaches ten times the cache size, so the history ages out
+ * and keys that were popular a long time ago do not stay in the cache forever.
+ */
+class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    FrequencySketch(int maximumSize) {
+        int tableSize = Integer.highestOneBit(Math.max(maximumSize, 16) - 1) << 1;
+        this.table = new long[tableSize];
+        this.tableMask = tableSize - 1;
+        this.sampleSize = 10 * Math.max(maximumSize, 1);
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            long position = position(hash, depth);
+            int offset = offset(position);
+            frequency = Math.min(frequency, (int) ((table[index(position)] >>> offset) & MAX_COUNT));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            long position = position(hash, depth);
+            int index = index(position);
+            int offset = offset(position);
+            if (((table[index] >>> offset) & MAX_COUNT) < MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++size == sampleSize)
+            reset();
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size /= 2;
+    }
+
+    private long position(int hash, int depth) {
+        long position = (hash + SEEDS[depth]) * SEEDS[depth];
+        return position + (position >>> 32);
+    }
+
+    private int index(long position) {
+        return (int) position & tableMask;
+    }
+
+    private int offset(long position) {
+        return (int) ((position >>> 40) & 15) << 2;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -0,0 +1,276 @@
+package digital.metro.pricing.calculator.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A bounded cache using the W-TinyLFU policy. New keys enter a small LRU window; keys falling out of the window
+ * are only admitted to the main region if the frequency sketch has seen them more often than the key the main
+ * region would evict. The main region is a segmented LRU, where keys hit a second time move from probation
+ * to the protected segment. One-off lookups, like a full catalog crawl, therefore pass through the window
+ * without flushing the frequently requested articles.
+ * <p>
+ * Reads never block: the value comes from a concurrent map and the access is recorded in a lossy ring buffer.
+ * The sketch and the queues are only updated under the policy lock, which a reader merely tries to take to drain
+ * the buffer; if another thread holds it, the read returns and that thread or a later one replays the access.
+ * Under heavy contention some accesses are dropped from the buffer, which only makes the policy slightly less
+ * precise. Writes take the lock.
+ */
+public class TinyLfuCache<K, V> {
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.80;
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    private final int maximumSize;
+    private final int maxWindow;
+    private final int maxProtected;
+    private final Map<K, Node<K, V>> data;
+    private final FrequencySketch sketch;
+    private final AccessOrderQueue<K, V> window = new AccessOrderQueue<>();
+    private final AccessOrderQueue<K, V> probation = new AccessOrderQueue<>();
+    private final AccessOrderQueue<K, V> protectedSegment = new AccessOrderQueue<>();
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final AtomicReferenceArray<K> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong readBufferWrites = new AtomicLong();
+    private long readBufferReads;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public TinyLfuCache(int maximumSize) {
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("Maximum cache size should be greater than zero");
+
+        this.maximumSize = maximumSize;
+        this.maxWindow = Math.max(1, (int) (maximumSize * WINDOW_RATIO));
+        this.maxProtected = (int) ((maximumSize - maxWindow) * PROTECTED_RATIO);
+        this.data = new ConcurrentHashMap<>(maximumSize * 4 / 3 + 1);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    public V get(K key) {
+        var node = data.get(key);
+        if (node == null)
+            missCount.increment();
+        else
+            hitCount.increment();
+
+        readBuffer.set((int) readBufferWrites.getAndIncrement() & READ_BUFFER_MASK, key);
+        if (policyLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Returns the cached value or loads it. The loader runs outside the policy lock, so concurrent misses for the
+     * same key may load it more than once; a {@code null} result is not cached.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null)
+            return value;
+
+        value = loader.apply(key);
+        if (value != null)
+            put(key, value);
+        return value;
+    }
+
+    public void put(K key, V value) {
+        policyLock.lock();
+        try {
+            drainReadBuffer();
+            var node = data.get(key);
+            if (node != null) {
+                node.value = value;
+                onHit(node);
+                return;
+            }
+
+            node = new Node<>(key, value);
+            data.put(key, node);
+            window.addLast(node);
+            evict();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public boolean containsKey(K key) {
+        return data.containsKey(key);
+    }
+
+    /**
+     * @return up to {@code limit} cached keys, protected ones first, most recently used first within a region
+     */
+    public List<K> hottestKeys(int limit) {
+        policyLock.lock();
+        try {
+            drainReadBuffer();
+            var keys = new ArrayList<K>(Math.min(limit, data.size()));
+            protectedSegment.collectMostRecent(keys, limit);
+            probation.collectMostRecent(keys, limit);
+            window.collectMostRecent(keys, limit);
+            return keys;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long requestCount = hits + missCount.sum();
+        return requestCount == 0 ? 1.0 : (double) hits / requestCount;
+    }
+
+    // region Privates
+
+    /**
+     * Replays the buffered reads into the sketch and the queues. Must hold the policy lock. Slots that were
+     * overwritten before being drained, or not written yet, are skipped.
+     */
+    private void drainReadBuffer() {
+        long writes = readBufferWrites.get();
+        for (long read = Math.max(readBufferReads, writes - READ_BUFFER_SIZE); read < writes; read++) {
+            var key = readBuffer.getAndSet((int) read & READ_BUFFER_MASK, null);
+            if (key == null)
+                continue;
+
+            sketch.increment(key);
+            var node = data.get(key);
+            if (node != null && node.queue != null)
+                onHit(node);
+        }
+        readBufferReads = writes;
+    }
+
+    private void onHit(Node<K, V> node) {
+        if (node.queue == window) {
+            window.moveToBack(node);
+        } else if (node.queue == probation) {
+            probation.remove(node);
+            protectedSegment.addLast(node);
+            if (protectedSegment.size > maxProtected)
+                probation.addLast(protectedSegment.removeFirst());
+        } else {
+            protectedSegment.moveToBack(node);
+        }
+    }
+
+    private void evict() {
+        Node<K, V> candidate = null;
+        if (window.size > maxWindow) {
+            candidate = window.removeFirst();
+            probation.addLast(candidate);
+        }
+
+        while (data.size() > maximumSize) {
+            var victim = probation.size > 0 ? probation.first() : protectedSegment.first();
+            if (candidate == null || candidate == victim) {
+                remove(victim);
+                candidate = null;
+            } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                remove(victim);
+            } else {
+                remove(candidate);
+                candidate = null;
+            }
+        }
+    }
+
+    private void remove(Node<K, V> node) {
+        node.queue.remove(node);
+        data.remove(node.key);
+    }
+
+    private static class Node<K, V> {
+        private final K key;
+        private volatile V value;
+        private AccessOrderQueue<K, V> queue;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * An intrusive doubly linked list ordered from least to most recently used.
+     */
+    private static class AccessOrderQueue<K, V> {
+        private final Node<K, V> head = new Node<>(null, null);
+        private int size;
+
+        AccessOrderQueue() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        Node<K, V> first() {
+            return head.next;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.queue = this;
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            size++;
+        }
+
+        Node<K, V> removeFirst() {
+            var node = head.next;
+            remove(node);
+            return node;
+        }
+
+        void remove(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            node.queue = null;
+            size--;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            remove(node);
+            addLast(node);
+        }
+
+        void collectMostRecent(List<K> keys, int limit) {
+            for (var node = head.prev; node != head && keys.size() < limit; node = node.prev) {
+                keys.add(node.key);
+            }
+        }
+    }
+
+    // endregion Privates
+}
@@ -0,0 +1,37 @@
+package digital.metro.pricing.calculator.controllers;
+
+import digital.metro.pricing.calculator.accesslog.AccessLogger;
+import digital.metro.pricing.calculator.dto.AccessLogStatistics;
+import digital.metro.pricing.calculator.dto.SlowRequestSample;
+import digital.metro.pricing.calculator.timing.SlowRequestSampler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private SlowRequestSampler slowRequestSampler;
+    private AccessLogger accessLogger;
+
+    @Autowired
+    public AdminController(SlowRequestSampler slowRequestSampler, AccessLogger accessLogger) {
+        this.slowRequestSampler = slowRequestSampler;
+        this.accessLogger = accessLogger;
+    }
+
+    @GetMapping("/slow-requests")
+    public ResponseEntity<List<SlowRequestSample>> getSlowRequests() {
+        return ResponseEntity.ok(slowRequestSampler.getSamples());
+    }
+
+    @GetMapping("/access-log")
+    public ResponseEntity<AccessLogStatistics> getAccessLogStatistics() {
+        return ResponseEntity.ok(accessLogger.getStatistics());
+    }
+}
@@ -2,11 +2,17 @@ package digital.metro.pricing.calculator.controllers;
 
 import digital.metro.pricing.calculator.dto.Basket;
 import digital.metro.pricing.calculator.dto.BasketCalculationResult;
+import digital.metro.pricing.calculator.dto.PriceListFormat;
 import digital.metro.pricing.calculator.services.BasketCalculatorService;
+import digital.metro.pricing.calculator.services.PriceListService;
+import digital.metro.pricing.calculator.timing.RequestTimings;
+import digital.metro.pricing.calculator.timing.Stage;
 import digital.metro.pricing.calculator.validator.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 
@@ -14,18 +20,23 @@ import java.math.BigDecimal;
 public class CalculatorResourceController {
 
     private BasketCalculatorService basketCalculatorService;
+    private PriceListService priceListService;
     private Validator validator;
 
     @Autowired
     public CalculatorResourceController(BasketCalculatorService basketCalculatorService,
+                                        PriceListService priceListService,
                                         Validator validator) {
         this.basketCalculatorService = basketCalculatorService;
+        this.priceListService = priceListService;
         this.validator = validator;
     }
 
     @PostMapping("/baskets")
     public ResponseEntity<BasketCalculationResult> calculateBasket(@RequestBody Basket basket) {
+        RequestTimings.start(Stage.VALIDATE);
         validator.validate(basket);
+        RequestTimings.stop(Stage.VALIDATE);
         BasketCalculationResult response = basketCalculatorService.calculateBasket(basket);
         return ResponseEntity.ok(response);
     }
@@ -35,4 +46,18 @@ public class CalculatorResourceController {
         BigDecimal response = basketCalculatorService.getArticlePriceForCustomer(articleId, customerId);
         return ResponseEntity.ok().body(response);
     }
+
+    /**
+     * Streams every article of the catalog with the customer's price, as CSV or newline delimited JSON.
+     * Not available in sharded mode, where this instance only holds part of the catalog.
+     */
+    @GetMapping("/customers/{customerId}/price-list")
+    public ResponseEntity<StreamingResponseBody> exportPriceList(@PathVariable String customerId,
+                                                                 @RequestParam(defaultValue = "CSV") PriceListFormat format) {
+        priceListService.checkExportAvailable();
+        StreamingResponseBody body = outputStream -> priceListService.exportPriceList(customerId, format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .body(body);
+    }
 }
@@ -0,0 +1,36 @@
+package digital.metro.pricing.calculator.controllers;
+
+import digital.metro.pricing.calculator.repositories.ShardedPriceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The batched price lookup peers call on the owner of a shard. Articles this instance does not own are left out
+ * of the response.
+ */
+@RestController
+@RequestMapping("/internal")
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class InternalPriceController {
+
+    private ShardedPriceRepository shardedPriceRepository;
+
+    @Autowired
+    public InternalPriceController(ShardedPriceRepository shardedPriceRepository) {
+        this.shardedPriceRepository = shardedPriceRepository;
+    }
+
+    @PostMapping("/prices")
+    public ResponseEntity<Map<String, BigDecimal>> findPrices(@RequestBody List<String> articleIds) {
+        return ResponseEntity.ok(shardedPriceRepository.findOwnedPrices(articleIds));
+    }
+}
@@ -0,0 +1,180 @@
+package digital.metro.pricing.calculator.discounts;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Discount rules compiled into a decision table indexed by customer segment and article category.
+ * Every cell holds the basket value tiers for that combination with the best applicable factor already resolved,
+ * so evaluating a line is two hash lookups, an array access and a search over the tiers of a single cell,
+ * independent of how many rules were defined.
+ */
+public class CompiledDiscountRules {
+    /** Category index used for articles without a category; only wildcard rules apply to it. */
+    private static final int UNCATEGORISED = 0;
+    private static final int NO_SEGMENT = -1;
+
+    private final Map<String, Integer> segmentByCustomer;
+    private final Map<String, Integer> categoryByArticle;
+    private final Tiers[][] table;
+    private final int ruleCount;
+
+    private CompiledDiscountRules(Map<String, Integer> segmentByCustomer, Map<String, Integer> categoryByArticle,
+                                  Tiers[][] table, int ruleCount) {
+        this.segmentByCustomer = segmentByCustomer;
+        this.categoryByArticle = categoryByArticle;
+        this.table = table;
+        this.ruleCount = ruleCount;
+    }
+
+    public static CompiledDiscountRules compile(Map<String, String> customerSegments,
+                                                Map<String, String> articleCategories,
+                                                List<DiscountRule> rules) {
+        var segmentIds = new HashMap<String, Integer>();
+        rules.forEach(rule -> segmentIds.putIfAbsent(rule.getSegment(), segmentIds.size()));
+        customerSegments.values().forEach(segment -> segmentIds.putIfAbsent(segment, segmentIds.size()));
+
+        var categoryIds = new HashMap<String, Integer>();
+        articleCategories.values().forEach(category -> categoryIds.putIfAbsent(category, categoryIds.size() + 1));
+        for (DiscountRule rule : rules) {
+            if (!rule.appliesToAnyCategory())
+                categoryIds.putIfAbsent(rule.getCategory(), categoryIds.size() + 1);
+        }
+
+        var rulesBySegment = new ArrayList<List<DiscountRule>>();
+        for (int i = 0; i < segmentIds.size(); i++) {
+            rulesBySegment.add(new ArrayList<>());
+        }
+        rules.forEach(rule -> rulesBySegment.get(segmentIds.get(rule.getSegment())).add(rule));
+
+        var table = new Tiers[segmentIds.size()][categoryIds.size() + 1];
+        for (int segment = 0; segment < table.length; segment++) {
+            var segmentRules = rulesBySegment.get(segment);
+            table[segment][UNCATEGORISED] = Tiers.of(segmentRules, null);
+            for (Map.Entry<String, Integer> category : categoryIds.entrySet()) {
+                table[segment][category.getValue()] = Tiers.of(segmentRules, category.getKey());
+            }
+        }
+
+        var segmentByCustomer = new HashMap<String, Integer>();
+        customerSegments.forEach((customer, segment) -> segmentByCustomer.put(customer, segmentIds.get(segment)));
+        var categoryByArticle = new HashMap<String, Integer>();
+        articleCategories.forEach((article, category) -> categoryByArticle.put(article, categoryIds.get(category)));
+
+        return new CompiledDiscountRules(segmentByCustomer, categoryByArticle, table, rules.size());
+    }
+
+    /**
+     * @return the price factor for the article when bought by the customer in a basket of the given value,
+     * or empty if no rule applies
+     */
+    public Optional<BigDecimal> findFactor(String customerId, String articleId, BigDecimal basketValue) {
+        return Optional.ofNullable(lookup(segmentOf(customerId), articleId, basketValue));
+    }
+
+    /**
+     * Resolves the customer's segment once, for callers pricing many articles for the same customer.
+     */
+    public CustomerDiscounts forCustomer(String customerId) {
+        return new CustomerDiscounts(segmentOf(customerId));
+    }
+
+    /**
+     * @return any customer assigned to a segment, or empty if no customer is
+     */
+    public Optional<String> findAnySegmentedCustomerId() {
+        return segmentByCustomer.keySet().stream().findAny();
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    private int segmentOf(String customerId) {
+        Integer segment = customerId == null ? null : segmentByCustomer.get(customerId);
+        return segment == null ? NO_SEGMENT : segment;
+    }
+
+    private BigDecimal lookup(int segment, String articleId, BigDecimal basketValue) {
+        if (segment == NO_SEGMENT)
+            return null;
+
+        Integer category = articleId == null ? null : categoryByArticle.get(articleId);
+        return table[segment][category == null ? UNCATEGORISED : category].factorFor(basketValue);
+    }
+
+    /**
+     * The discounts of a single customer, bound to the rule set that was current when it was created.
+     */
+    public class CustomerDiscounts {
+        private final int segment;
+
+        private CustomerDiscounts(int segment) {
+            this.segment = segment;
+        }
+
+        public Optional<BigDecimal> findFactor(String articleId, BigDecimal basketValue) {
+            return Optional.ofNullable(lookup(segment, articleId, basketValue));
+        }
+    }
+
+    /**
+     * Ascending basket value thresholds of one decision table cell, each paired with the lowest factor
+     * of all rules whose minimum basket value is reached at that threshold.
+     */
+    private static class Tiers {
+        private static final Tiers NONE = new Tiers(new BigDecimal[0], new BigDecimal[0]);
+
+        private final BigDecimal[] thresholds;
+        private final BigDecimal[] factors;
+
+        private Tiers(BigDecimal[] thresholds, BigDecimal[] factors) {
+            this.thresholds = thresholds;
+            this.factors = factors;
+        }
+
+        static Tiers of(List<DiscountRule> segmentRules, String category) {
+            var applicable = new ArrayList<DiscountRule>();
+            for (DiscountRule rule : segmentRules) {
+                if (rule.appliesToAnyCategory() || rule.getCategory().equals(category))
+                    applicable.add(rule);
+            }
+            if (applicable.isEmpty())
+                return NONE;
+
+            var distinctThresholds = new TreeSet<BigDecimal>(BigDecimal::compareTo);
+            applicable.forEach(rule -> distinctThresholds.add(rule.getMinBasketValue()));
+
+            var thresholds = distinctThresholds.toArray(new BigDecimal[0]);
+            var factors = new BigDecimal[thresholds.length];
+            BigDecimal best = null;
+            for (int i = 0; i < thresholds.length; i++) {
+                for (DiscountRule rule : applicable) {
+                    if (rule.getMinBasketValue().compareTo(thresholds[i]) == 0
+                            && (best == null || rule.getFactor().compareTo(best) < 0))
+                        best = rule.getFactor();
+                }
+                factors[i] = best;
+            }
+            return new Tiers(thresholds, factors);
+        }
+
+        BigDecimal factorFor(BigDecimal basketValue) {
+            if (thresholds.length == 0)
+                return null;
+            if (basketValue == null)
+                basketValue = BigDecimal.ZERO;
+
+            int index = Arrays.binarySearch(thresholds, basketValue, BigDecimal::compareTo);
+            if (index < 0)
+                index = -index - 2;
+            return index < 0 ? null : factors[index];
+        }
+    }
+}
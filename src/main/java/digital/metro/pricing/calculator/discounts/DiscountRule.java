@@ -0,0 +1,25 @@
+package digital.metro.pricing.calculator.discounts;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * A single discount rule as written in the rule definition file. The factor is applied to the full price,
+ * e.g. 0.90 means 10% off, for customers of the given segment once the basket reaches the minimum value.
+ */
+@Getter
+@AllArgsConstructor
+public class DiscountRule {
+    public static final String ANY_CATEGORY = "*";
+
+    private String segment;
+    private String category;
+    private BigDecimal minBasketValue;
+    private BigDecimal factor;
+
+    public boolean appliesToAnyCategory() {
+        return ANY_CATEGORY.equals(category);
+    }
+}
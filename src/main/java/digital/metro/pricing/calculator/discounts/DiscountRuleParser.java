@@ -0,0 +1,82 @@
+package digital.metro.pricing.calculator.discounts;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Reads the discount rule definition format and compiles it. One definition per line, blank lines and lines
+ * starting with '#' are ignored:
+ * <pre>
+ * customer,&lt;customerId&gt;,&lt;segment&gt;
+ * category,&lt;articleId&gt;,&lt;category&gt;
+ * rule,&lt;segment&gt;,&lt;category or *&gt;,&lt;minimum basket value&gt;,&lt;price factor&gt;
+ * </pre>
+ */
+public class DiscountRuleParser {
+
+    public CompiledDiscountRules parse(Reader reader) throws IOException {
+        var customerSegments = new HashMap<String, String>();
+        var articleCategories = new HashMap<String, String>();
+        var rules = new ArrayList<DiscountRule>();
+
+        var lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+
+            String[] fields = line.split("\\s*,\\s*");
+            switch (fields[0]) {
+                case "customer":
+                    requireFieldCount(fields, 3, lineNumber);
+                    customerSegments.put(fields[1], fields[2]);
+                    break;
+                case "category":
+                    requireFieldCount(fields, 3, lineNumber);
+                    articleCategories.put(fields[1], fields[2]);
+                    break;
+                case "rule":
+                    requireFieldCount(fields, 5, lineNumber);
+                    rules.add(new DiscountRule(fields[1], fields[2],
+                            parseDecimal(fields[3], lineNumber), parseFactor(fields[4], lineNumber)));
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                            MessageFormat.format("Unknown definition ''{0}'' on line {1}", fields[0], lineNumber));
+            }
+        }
+
+        return CompiledDiscountRules.compile(customerSegments, articleCategories, rules);
+    }
+
+    private void requireFieldCount(String[] fields, int expected, int lineNumber) {
+        if (fields.length != expected)
+            throw new IllegalArgumentException(
+                    MessageFormat.format("Expected {0} fields on line {1} but found {2}", expected, lineNumber, fields.length));
+    }
+
+    private BigDecimal parseFactor(String value, int lineNumber) {
+        var factor = parseDecimal(value, lineNumber);
+        if (factor.signum() <= 0 || factor.compareTo(BigDecimal.ONE) > 0)
+            throw new IllegalArgumentException(
+                    MessageFormat.format("Price factor {0} on line {1} must be in (0, 1]", value, lineNumber));
+        return factor;
+    }
+
+    private BigDecimal parseDecimal(String value, int lineNumber) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    MessageFormat.format("Invalid number ''{0}'' on line {1}", value, lineNumber));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package digital.metro.pricing.calculator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class AccessLogStatistics {
+    private int queuedCount;
+    private long droppedCount;
+}
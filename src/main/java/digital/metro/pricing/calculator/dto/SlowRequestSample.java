@@ -0,0 +1,17 @@
+package digital.metro.pricing.calculator.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class SlowRequestSample {
+    private String method;
+    private String uri;
+    private Instant completedAt;
+    private double durationMillis;
+    private Map<String, Double> stagesMillis;
+}
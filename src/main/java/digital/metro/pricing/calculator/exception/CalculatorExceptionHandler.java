@@ -26,4 +26,16 @@ public class CalculatorExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity(exceptionResponse, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(ShardUnavailableException.class)
+    protected ResponseEntity<Object> handleShardUnavailableException(ShardUnavailableException ex) {
+        ExceptionResponse exceptionResponse= new ExceptionResponse(ex.getMessage());
+        return new ResponseEntity(exceptionResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(PriceListUnavailableException.class)
+    protected ResponseEntity<Object> handlePriceListUnavailableException(PriceListUnavailableException ex) {
+        ExceptionResponse exceptionResponse= new ExceptionResponse(ex.getMessage());
+        return new ResponseEntity(exceptionResponse, HttpStatus.NOT_IMPLEMENTED);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package digital.metro.pricing.calculator.exception;
+
+public class PriceListUnavailableException extends RuntimeException {
+    public PriceListUnavailableException(String message) {
+        super(message);
+    }
+}
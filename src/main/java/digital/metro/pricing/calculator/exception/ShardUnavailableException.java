@@ -0,0 +1,7 @@
+package digital.metro.pricing.calculator.exception;
+
+public class ShardUnavailableException extends RuntimeException {
+    public ShardUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,22 +1,73 @@
 package digital.metro.pricing.calculator.repositories;
 
-import org.apache.commons.lang3.StringUtils;
+import digital.metro.pricing.calculator.discounts.CompiledDiscountRules;
+import digital.metro.pricing.calculator.discounts.CompiledDiscountRules.CustomerDiscounts;
+import digital.metro.pricing.calculator.discounts.DiscountRuleParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
+/**
+ * Serves customer discounts from the rule definitions at {@code discount.rules.location}. The rules are compiled
+ * once per load and swapped atomically when the file changes, so lookups never interpret the rule set.
+ */
+@Slf4j
 @Component
 public class DiscountRepository {
-    //TODO: this should be cached
-    private Map<String, BigDecimal> customerDiscountsPercentages = Map.of("customer-1", new BigDecimal("0.90"),
-            "customer-2",  new BigDecimal("0.85"));
-
-    public Optional<BigDecimal> findDiscountByCustomerId(String customerId) {
-        return customerDiscountsPercentages.entrySet().stream()
-                .filter(e -> StringUtils.equals(e.getKey(), customerId))
-                .map(Map.Entry::getValue)
-                .findFirst();
+    private final Resource rulesResource;
+    private final DiscountRuleParser parser = new DiscountRuleParser();
+    private volatile CompiledDiscountRules rules;
+    private volatile long rulesLastModified;
+
+    @Autowired
+    public DiscountRepository(ResourceLoader resourceLoader,
+                              @Value("${discount.rules.location:classpath:discount-rules.csv}") String rulesLocation) {
+        this.rulesResource = resourceLoader.getResource(rulesLocation);
+        try {
+            load();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load discount rules from " + rulesLocation, e);
+        }
+    }
+
+    public Optional<BigDecimal> findDiscount(String customerId, String articleId, BigDecimal basketValue) {
+        return rules.findFactor(customerId, articleId, basketValue);
+    }
+
+    public CustomerDiscounts findDiscountsForCustomer(String customerId) {
+        return rules.forCustomer(customerId);
+    }
+
+    public Optional<String> findAnySegmentedCustomerId() {
+        return rules.findAnySegmentedCustomerId();
+    }
+
+    @Scheduled(fixedDelayString = "${discount.rules.reload-interval-ms:10000}")
+    public void reloadIfModified() {
+        try {
+            if (rulesResource.lastModified() != rulesLastModified)
+                load();
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Keeping previous discount rules, reload failed: {}", e.getMessage());
+        }
+    }
+
+    private void load() throws IOException {
+        long lastModified = rulesResource.lastModified();
+        try (var reader = new InputStreamReader(rulesResource.getInputStream(), StandardCharsets.UTF_8)) {
+            rules = parser.parse(reader);
+        }
+        rulesLastModified = lastModified;
+        log.info("Loaded {} discount rules from {}", rules.getRuleCount(), rulesResource.getDescription());
     }
 }
@@ -1,21 +1,95 @@
 package digital.metro.pricing.calculator.repositories;
 
+import digital.metro.pricing.calculator.cache.TinyLfuCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A dummy implementation for testing purposes. In production, we would get real prices from a database.
+ * Lookups go through a {@link TinyLfuCache}, so catalog crawls do not evict the frequently requested articles.
  */
 @Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "false", matchIfMissing = true)
 public class PriceRepository {
-    private Map<String, BigDecimal> prices = new HashMap<>();
+    private Map<String, BigDecimal> prices = new ConcurrentHashMap<>();
     private Random random = new Random();
+    private TinyLfuCache<String, BigDecimal> priceCache;
+
+    @Autowired
+    public PriceRepository(@Value("${price.cache.maximum-size:10000}") int cacheMaximumSize) {
+        this.priceCache = new TinyLfuCache<>(cacheMaximumSize);
+    }
 
     public BigDecimal findPriceByArticleId(String articleId) {
+        return findLocalPrice(articleId);
+    }
+
+    /**
+     * @return the prices of the given articles; articles without a price are left out
+     */
+    public Map<String, BigDecimal> findPricesByArticleIds(Collection<String> articleIds) {
+        return findLocalPrices(articleIds);
+    }
+
+    /**
+     * Iterates the whole catalog without going through the price cache. The iterator is weakly consistent:
+     * articles priced while iterating may or may not be included.
+     */
+    public Iterator<Map.Entry<String, BigDecimal>> iteratePrices() {
+        return Collections.unmodifiableMap(prices).entrySet().iterator();
+    }
+
+    /**
+     * @return whether {@link #iteratePrices()} covers the whole catalog rather than a single shard of it
+     */
+    public boolean coversWholeCatalog() {
+        return true;
+    }
+
+    public List<String> findHotArticleIds(int limit) {
+        return priceCache.hottestKeys(limit);
+    }
+
+    /**
+     * Adds prices from a snapshot to the catalog and puts the given hot articles into the price cache,
+     * hottest first.
+     */
+    public void restore(Map<String, BigDecimal> snapshotPrices, List<String> hotArticleIds) {
+        prices.putAll(snapshotPrices);
+        for (String articleId : hotArticleIds) {
+            var price = prices.get(articleId);
+            if (price != null)
+                priceCache.put(articleId, price);
+        }
+    }
+
+    protected BigDecimal findLocalPrice(String articleId) {
+        return priceCache.computeIfAbsent(articleId, this::loadPrice);
+    }
+
+    protected Map<String, BigDecimal> findLocalPrices(Collection<String> articleIds) {
+        var result = new HashMap<String, BigDecimal>(articleIds.size() * 4 / 3 + 1);
+        for (String articleId : articleIds) {
+            var price = findLocalPrice(articleId);
+            if (price != null)
+                result.put(articleId, price);
+        }
+        return result;
+    }
+
+    private BigDecimal loadPrice(String articleId) {
         return prices.computeIfAbsent(articleId,
                 key -> getPricingByArticleId());
     }
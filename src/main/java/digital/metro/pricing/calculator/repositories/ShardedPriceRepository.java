@@ -0,0 +1,197 @@
+package digital.metro.pricing.calculator.repositories;
+
+import digital.metro.pricing.calculator.cache.TinyLfuCache;
+import digital.metro.pricing.calculator.exception.ShardUnavailableException;
+import digital.metro.pricing.calculator.sharding.ConsistentHashRing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Partitions the catalog across {@code sharding.peers} with a {@link ConsistentHashRing}. This instance only
+ * prices the articles it owns; the others are fetched from their owners, one batched request per peer and all
+ * peers in parallel, and kept in a local near-cache. Prices in the dummy catalog never change once set, so the
+ * near-cache entries do not expire. All peers of a lookup share one {@code sharding.timeout-ms} deadline; requests
+ * still running when it passes are cancelled.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardedPriceRepository extends PriceRepository {
+    private static final String PRICES_PATH = "/internal/prices";
+    private static final ParameterizedTypeReference<Map<String, BigDecimal>> PRICES_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    private ConsistentHashRing ring;
+    private String self;
+    private RestTemplate restTemplate;
+    private ExecutorService fanOutExecutor;
+    private TinyLfuCache<String, BigDecimal> nearCache;
+    private long timeoutMillis;
+
+    @Autowired
+    public ShardedPriceRepository(@Value("${price.cache.maximum-size:10000}") int cacheMaximumSize,
+                                  @Value("${sharding.self}") String self,
+                                  @Value("${sharding.peers}") List<String> peers,
+                                  @Value("${sharding.virtual-nodes:128}") int virtualNodes,
+                                  @Value("${sharding.near-cache-size:10000}") int nearCacheSize,
+                                  @Value("${sharding.fan-out-threads:16}") int fanOutThreads,
+                                  @Value("${sharding.fan-out-queue-capacity:1000}") int fanOutQueueCapacity,
+                                  @Value("${sharding.timeout-ms:500}") long timeoutMillis,
+                                  RestTemplateBuilder restTemplateBuilder) {
+        super(cacheMaximumSize);
+        if (!peers.contains(self))
+            throw new IllegalStateException(MessageFormat.format("sharding.self {0} is not one of the peers {1}", self, peers));
+
+        this.ring = new ConsistentHashRing(peers, virtualNodes);
+        this.self = self;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(timeoutMillis))
+                .setReadTimeout(Duration.ofMillis(timeoutMillis))
+                .build();
+        this.fanOutExecutor = new ThreadPoolExecutor(fanOutThreads, fanOutThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fanOutQueueCapacity), fanOutThreadFactory());
+        this.nearCache = new TinyLfuCache<>(nearCacheSize);
+        this.timeoutMillis = timeoutMillis;
+        log.info("Serving shard of {} out of {} peers", self, peers.size());
+    }
+
+    @Override
+    public BigDecimal findPriceByArticleId(String articleId) {
+        if (self.equals(ring.ownerOf(articleId)))
+            return findLocalPrice(articleId);
+
+        return findPricesByArticleIds(List.of(articleId)).get(articleId);
+    }
+
+    @Override
+    public Map<String, BigDecimal> findPricesByArticleIds(Collection<String> articleIds) {
+        var result = new HashMap<String, BigDecimal>(articleIds.size() * 4 / 3 + 1);
+        var localArticleIds = new ArrayList<String>();
+        var remoteArticleIdsByPeer = new HashMap<String, List<String>>();
+        for (String articleId : articleIds) {
+            var owner = ring.ownerOf(articleId);
+            if (self.equals(owner)) {
+                localArticleIds.add(articleId);
+                continue;
+            }
+            var cachedPrice = nearCache.get(articleId);
+            if (cachedPrice != null)
+                result.put(articleId, cachedPrice);
+            else
+                remoteArticleIdsByPeer.computeIfAbsent(owner, peer -> new ArrayList<>()).add(articleId);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        var remotePrices = new HashMap<String, Future<Map<String, BigDecimal>>>();
+        try {
+            remoteArticleIdsByPeer.forEach((peer, peerArticleIds) ->
+                    remotePrices.put(peer, submitFetch(peer, peerArticleIds)));
+
+            result.putAll(findLocalPrices(localArticleIds));
+            remotePrices.forEach((peer, prices) -> {
+                var peerPrices = await(peer, prices, deadline);
+                peerPrices.forEach(nearCache::put);
+                result.putAll(peerPrices);
+            });
+        } finally {
+            remotePrices.values().forEach(prices -> prices.cancel(true));
+        }
+        return result;
+    }
+
+    /**
+     * Only this instance's shard is held locally, so iterating the prices does not cover the whole catalog.
+     */
+    @Override
+    public boolean coversWholeCatalog() {
+        return false;
+    }
+
+    /**
+     * Answers the lookups of other peers from this instance's shard only: articles owned by another peer are left
+     * out, so a peer with a different view of the ring can neither make this instance price them nor make peers
+     * forward requests to each other in a loop.
+     */
+    public Map<String, BigDecimal> findOwnedPrices(Collection<String> articleIds) {
+        var ownedArticleIds = new ArrayList<String>(articleIds.size());
+        for (String articleId : articleIds) {
+            if (self.equals(ring.ownerOf(articleId)))
+                ownedArticleIds.add(articleId);
+        }
+        return findLocalPrices(ownedArticleIds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    // region Privates
+
+    private Future<Map<String, BigDecimal>> submitFetch(String peer, List<String> articleIds) {
+        try {
+            return fanOutExecutor.submit(() -> fetchPrices(peer, articleIds));
+        } catch (RejectedExecutionException e) {
+            throw new ShardUnavailableException(MessageFormat.format("Too many pending requests to {0}", peer), e);
+        }
+    }
+
+    private Map<String, BigDecimal> fetchPrices(String peer, List<String> articleIds) {
+        var response = restTemplate.exchange(peer + PRICES_PATH, HttpMethod.POST, new HttpEntity<>(articleIds), PRICES_TYPE);
+        return response.getBody() == null ? Map.of() : response.getBody();
+    }
+
+    /**
+     * Waits for the prices of a peer until the deadline shared by all peers of the lookup, so slow peers add up
+     * to one timeout rather than one each.
+     */
+    private Map<String, BigDecimal> await(String peer, Future<Map<String, BigDecimal>> prices, long deadline) {
+        try {
+            return prices.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShardUnavailableException(MessageFormat.format("Interrupted waiting for prices from {0}", peer), e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new ShardUnavailableException(MessageFormat.format("Could not get prices from {0}", peer), e);
+        }
+    }
+
+    private static ThreadFactory fanOutThreadFactory() {
+        var threadCount = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, "shard-fan-out-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // endregion Privates
+}
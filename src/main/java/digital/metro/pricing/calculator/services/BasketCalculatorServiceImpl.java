@@ -1,12 +1,15 @@
 package digital.metro.pricing.calculator.services;
 
 import digital.metro.pricing.calculator.aop.LogExecutionTime;
+import digital.metro.pricing.calculator.discounts.CompiledDiscountRules.CustomerDiscounts;
 import digital.metro.pricing.calculator.dto.Basket;
 import digital.metro.pricing.calculator.dto.BasketCalculationResult;
 import digital.metro.pricing.calculator.dto.BasketEntry;
 import digital.metro.pricing.calculator.exception.ArticleNotFoundException;
 import digital.metro.pricing.calculator.repositories.DiscountRepository;
 import digital.metro.pricing.calculator.repositories.PriceRepository;
+import digital.metro.pricing.calculator.timing.RequestTimings;
+import digital.metro.pricing.calculator.timing.Stage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -57,16 +60,25 @@ public class BasketCalculatorServiceImpl implements BasketCalculatorService {
     private BigDecimal getPriceWithDiscountForCustomer(String articleId, String customerId) {
         BigDecimal fullPrice = getFullPrice(articleId);
 
-        var discountByCustomerId = discountRepository.findDiscountByCustomerId(customerId);
-        if (discountByCustomerId.isEmpty())
-            return fullPrice;
-
-        var priceWithDiscount = fullPrice.multiply(discountByCustomerId.get());
-        return getRoundedResult(priceWithDiscount);
+        RequestTimings.start(Stage.DISCOUNT);
+        try {
+            var discount = discountRepository.findDiscount(customerId, articleId, BigDecimal.ZERO);
+            return discount.isEmpty()
+                    ? fullPrice
+                    : getRoundedResult(fullPrice.multiply(discount.get()));
+        } finally {
+            RequestTimings.stop(Stage.DISCOUNT);
+        }
     }
 
     private BigDecimal getFullPrice(String articleId) {
-        var fullPrice = priceRepository.findPriceByArticleId(articleId);
+        BigDecimal fullPrice;
+        RequestTimings.start(Stage.PRICE_LOOKUP);
+        try {
+            fullPrice = priceRepository.findPriceByArticleId(articleId);
+        } finally {
+            RequestTimings.stop(Stage.PRICE_LOOKUP);
+        }
         if(fullPrice == null) {
             throw new ArticleNotFoundException(MessageFormat.format("Could not find price for article {0}", articleId));
         }
@@ -82,22 +94,69 @@ public class BasketCalculatorServiceImpl implements BasketCalculatorService {
                 .reduce(BigDecimal.ZERO, (a, b) -> a.add(b));
     }
 
+    /**
+     * Binds the customer's discounts once, so every line of the basket is priced against the same rule set even
+     * if the rules are reloaded meanwhile.
+     */
     private Map<String, BigDecimal> getPricedArticles(Basket basket) {
+        var fullPrices = getFullPrices(basket);
+        var basketValue = getBasketValue(basket, fullPrices);
+        var discounts = discountRepository.findDiscountsForCustomer(basket.getCustomerId());
         return basket.getEntries().stream()
                 .collect(Collectors.toMap(
                         BasketEntry::getArticleId,
-                        entry -> calculateArticleTotalPrice(entry, basket.getCustomerId())));
+                        entry -> calculateArticleTotalPrice(entry, discounts,
+                                fullPrices.get(entry.getArticleId()), basketValue)));
+    }
+
+    /**
+     * Looks up all prices of the basket in one batch, so a sharded repository can fetch them per owning peer.
+     */
+    private Map<String, BigDecimal> getFullPrices(Basket basket) {
+        var articleIds = basket.getEntries().stream()
+                .map(BasketEntry::getArticleId)
+                .collect(Collectors.toSet());
+
+        Map<String, BigDecimal> fullPrices;
+        RequestTimings.start(Stage.PRICE_LOOKUP);
+        try {
+            fullPrices = priceRepository.findPricesByArticleIds(articleIds);
+        } finally {
+            RequestTimings.stop(Stage.PRICE_LOOKUP);
+        }
+
+        for (String articleId : articleIds) {
+            if (!fullPrices.containsKey(articleId))
+                throw new ArticleNotFoundException(MessageFormat.format("Could not find price for article {0}", articleId));
+        }
+        return fullPrices;
     }
 
-    private BigDecimal calculateArticleTotalPrice(BasketEntry basketEntry, String customerId) {
+    /**
+     * The undiscounted value of the basket, which decides the discount tier of every line.
+     */
+    private BigDecimal getBasketValue(Basket basket, Map<String, BigDecimal> fullPrices) {
+        return basket.getEntries().stream()
+                .map(entry -> fullPrices.get(entry.getArticleId()).multiply(entry.getQuantity()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private BigDecimal calculateArticleTotalPrice(BasketEntry basketEntry, CustomerDiscounts discounts,
+                                                  BigDecimal fullPrice, BigDecimal basketValue) {
         var quantity = basketEntry.getQuantity();
 
         if (!isQuantityValid(quantity)) {
             throw new IllegalArgumentException(MessageFormat.format("Quantity {0} exceeds the available amount", quantity.toString()));
         }
 
-        var pricePerItem = getArticlePriceForCustomer(basketEntry.getArticleId(), customerId);
-        return quantity.multiply(pricePerItem);
+        RequestTimings.start(Stage.DISCOUNT);
+        try {
+            var discount = discounts.findFactor(basketEntry.getArticleId(), basketValue);
+            var pricePerItem = discount.isEmpty() ? fullPrice : getRoundedResult(fullPrice.multiply(discount.get()));
+            return quantity.multiply(pricePerItem);
+        } finally {
+            RequestTimings.stop(Stage.DISCOUNT);
+        }
     }
 
     private boolean isQuantityValid(BigDecimal quantityByArticleId) {
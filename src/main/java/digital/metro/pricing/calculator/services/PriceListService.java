@@ -0,0 +1,16 @@
+package digital.metro.pricing.calculator.services;
+
+import digital.metro.pricing.calculator.dto.PriceListFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface PriceListService {
+    /**
+     * Fails with {@link digital.metro.pricing.calculator.exception.PriceListUnavailableException} if this instance
+     * cannot export the whole catalog, before any part of a response is written.
+     */
+    void checkExportAvailable();
+
+    void exportPriceList(String customerId, PriceListFormat format, OutputStream outputStream) throws IOException;
+}
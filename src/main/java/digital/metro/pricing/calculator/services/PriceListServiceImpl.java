@@ -0,0 +1,115 @@
+package digital.metro.pricing.calculator.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digital.metro.pricing.calculator.aop.LogExecutionTime;
+import digital.metro.pricing.calculator.discounts.CompiledDiscountRules.CustomerDiscounts;
+import digital.metro.pricing.calculator.dto.PriceListFormat;
+import digital.metro.pricing.calculator.exception.PriceListUnavailableException;
+import digital.metro.pricing.calculator.repositories.DiscountRepository;
+import digital.metro.pricing.calculator.repositories.PriceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes a customer's price list straight from the catalog iterator into a fixed size buffer, so memory use does
+ * not grow with the catalog. Writes block while the client is not reading, which throttles the iteration.
+ */
+@Component
+public class PriceListServiceImpl implements PriceListService {
+    private static final int BUFFER_SIZE = 8192;
+
+    private PriceRepository priceRepository;
+    private DiscountRepository discountRepository;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public PriceListServiceImpl(PriceRepository priceRepository,
+                                DiscountRepository discountRepository,
+                                ObjectMapper objectMapper) {
+        this.priceRepository = priceRepository;
+        this.discountRepository = discountRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * A sharded instance only holds its own shard; exporting it would silently give the customer a partial list.
+     */
+    public void checkExportAvailable() {
+        if (!priceRepository.coversWholeCatalog())
+            throw new PriceListUnavailableException("Price lists cannot be exported while the catalog is sharded");
+    }
+
+    @LogExecutionTime
+    public void exportPriceList(String customerId, PriceListFormat format, OutputStream outputStream) throws IOException {
+        checkExportAvailable();
+        var discounts = discountRepository.findDiscountsForCustomer(customerId);
+        var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        if (format == PriceListFormat.NDJSON)
+            writeNdjson(discounts, writer);
+        else
+            writeCsv(discounts, writer);
+
+        writer.flush();
+    }
+
+    // region Privates
+
+    private void writeCsv(CustomerDiscounts discounts, Writer writer) throws IOException {
+        writer.write("articleId,price\n");
+        for (var prices = priceRepository.iteratePrices(); prices.hasNext(); ) {
+            var price = prices.next();
+            writer.write(escapeCsv(price.getKey()));
+            writer.write(',');
+            writer.write(getCustomerPrice(price, discounts).toPlainString());
+            writer.write('\n');
+        }
+    }
+
+    private void writeNdjson(CustomerDiscounts discounts, Writer writer) throws IOException {
+        var generator = objectMapper.getFactory().createGenerator(writer);
+        generator.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        for (var prices = priceRepository.iteratePrices(); prices.hasNext(); ) {
+            var price = prices.next();
+            generator.writeStartObject();
+            generator.writeStringField("articleId", price.getKey());
+            generator.writeNumberField("price", getCustomerPrice(price, discounts));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    /**
+     * Same pricing as a single article lookup: the discounted price is rounded, the full price is returned as is.
+     */
+    private BigDecimal getCustomerPrice(Map.Entry<String, BigDecimal> price, CustomerDiscounts discounts) {
+        var discount = discounts.findFactor(price.getKey(), BigDecimal.ZERO);
+        if (discount.isEmpty())
+            return price.getValue();
+
+        return price.getValue().multiply(discount.get()).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // endregion Privates
+}
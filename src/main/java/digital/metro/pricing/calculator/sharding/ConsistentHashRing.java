@@ -0,0 +1,60 @@
+package digital.metro.pricing.calculator.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps article ids to the peer owning them. Every peer is placed on a 64-bit ring at {@code virtualNodes} points
+ * and owns the keys hashing between its points and the preceding ones, so adding or removing a peer only moves
+ * the keys of that peer. The ring is immutable and looking up an owner is a hash plus a binary search.
+ */
+public class ConsistentHashRing {
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(List<String> peers, int virtualNodes) {
+        if (peers.isEmpty() || virtualNodes < 1)
+            throw new IllegalArgumentException("A hash ring needs at least one peer and one virtual node");
+
+        var entries = new long[peers.size() * virtualNodes][];
+        int next = 0;
+        for (int peer = 0; peer < peers.size(); peer++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                entries[next++] = new long[]{hash(peers.get(peer) + "#" + node), peer};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+
+        this.points = new long[entries.length];
+        this.owners = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = peers.get((int) entries[i][1]);
+        }
+    }
+
+    public String ownerOf(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0)
+            index = -index - 1;
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer to spread similar keys.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,87 @@
+package digital.metro.pricing.calculator.snapshot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of the article prices and the hot set of the price cache. Prices are written straight from the
+ * catalog iterator, each one preceded by a marker byte, so writing never copies the catalog:
+ * <pre>
+ * int magic, int version
+ * (byte 1, UTF articleId, int scale, short length, byte[] unscaled value)* byte 0
+ * int hot set size, UTF articleId*
+ * </pre>
+ */
+public class CatalogSnapshot {
+    private static final int MAGIC = 0x50524943;
+    private static final int VERSION = 1;
+
+    private final Map<String, BigDecimal> prices;
+    private final List<String> hotArticleIds;
+
+    private CatalogSnapshot(Map<String, BigDecimal> prices, List<String> hotArticleIds) {
+        this.prices = prices;
+        this.hotArticleIds = hotArticleIds;
+    }
+
+    public Map<String, BigDecimal> getPrices() {
+        return prices;
+    }
+
+    public List<String> getHotArticleIds() {
+        return hotArticleIds;
+    }
+
+    public static void write(DataOutputStream out, Iterator<Map.Entry<String, BigDecimal>> prices,
+                             List<String> hotArticleIds) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        while (prices.hasNext()) {
+            var price = prices.next();
+            byte[] unscaledValue = price.getValue().unscaledValue().toByteArray();
+            out.writeByte(1);
+            out.writeUTF(price.getKey());
+            out.writeInt(price.getValue().scale());
+            out.writeShort(unscaledValue.length);
+            out.write(unscaledValue);
+        }
+        out.writeByte(0);
+
+        out.writeInt(hotArticleIds.size());
+        for (String articleId : hotArticleIds) {
+            out.writeUTF(articleId);
+        }
+    }
+
+    public static CatalogSnapshot read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a catalog snapshot");
+        int version = in.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported catalog snapshot version " + version);
+
+        var prices = new HashMap<String, BigDecimal>();
+        while (in.readByte() != 0) {
+            var articleId = in.readUTF();
+            int scale = in.readInt();
+            byte[] unscaledValue = new byte[in.readUnsignedShort()];
+            in.readFully(unscaledValue);
+            prices.put(articleId, new BigDecimal(new BigInteger(unscaledValue), scale));
+        }
+
+        int hotSetSize = in.readInt();
+        var hotArticleIds = new ArrayList<String>(hotSetSize);
+        for (int i = 0; i < hotSetSize; i++) {
+            hotArticleIds.add(in.readUTF());
+        }
+        return new CatalogSnapshot(prices, hotArticleIds);
+    }
+}
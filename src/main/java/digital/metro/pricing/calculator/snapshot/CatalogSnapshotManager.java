@@ -0,0 +1,168 @@
+package digital.metro.pricing.calculator.snapshot;
+
+import digital.metro.pricing.calculator.dto.Basket;
+import digital.metro.pricing.calculator.dto.BasketEntry;
+import digital.metro.pricing.calculator.repositories.DiscountRepository;
+import digital.metro.pricing.calculator.repositories.PriceRepository;
+import digital.metro.pricing.calculator.services.BasketCalculatorServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Persists the catalog and the price cache hot set to {@code snapshot.path} periodically and on shutdown. On
+ * startup the snapshot is restored and {@code calculateBasket} is run over the hot articles, both before the
+ * web server starts accepting requests, so the first requests after a deploy hit warm caches and compiled code.
+ * With {@code snapshot.enabled=false} nothing is restored, warmed up or saved.
+ */
+@Slf4j
+@Component
+public class CatalogSnapshotManager implements SmartInitializingSingleton {
+    private static final int WARM_UP_BASKET_SIZE = 10;
+    private static final String WARM_UP_CUSTOMER_ID = "warm-up";
+
+    private PriceRepository priceRepository;
+    private DiscountRepository discountRepository;
+    private boolean enabled;
+    private Path snapshotPath;
+    private int hotSetSize;
+    private int warmUpIterations;
+    private long restoreMillis;
+    private long warmUpMillis;
+
+    @Autowired
+    public CatalogSnapshotManager(PriceRepository priceRepository,
+                                  DiscountRepository discountRepository,
+                                  @Value("${snapshot.enabled:true}") boolean enabled,
+                                  @Value("${snapshot.path:data/catalog.snapshot}") String snapshotPath,
+                                  @Value("${snapshot.hot-set-size:1000}") int hotSetSize,
+                                  @Value("${snapshot.warm-up-iterations:10000}") int warmUpIterations) {
+        this.priceRepository = priceRepository;
+        this.discountRepository = discountRepository;
+        this.enabled = enabled;
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.hotSetSize = hotSetSize;
+        this.warmUpIterations = warmUpIterations;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled)
+            return;
+
+        long start = System.nanoTime();
+        var hotArticleIds = restore();
+        restoreMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        warmUp(hotArticleIds);
+        warmUpMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportTimeToReady() {
+        log.info("Ready to serve {} ms after JVM start (snapshot restore {} ms, warm-up {} ms)",
+                ManagementFactory.getRuntimeMXBean().getUptime(), restoreMillis, warmUpMillis);
+    }
+
+    @Scheduled(initialDelayString = "${snapshot.interval-ms:300000}", fixedDelayString = "${snapshot.interval-ms:300000}")
+    public void save() {
+        if (!enabled)
+            return;
+
+        try {
+            var parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            var tempFile = Files.createTempFile(parent, snapshotPath.getFileName().toString(), ".tmp");
+            try {
+                try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                    CatalogSnapshot.write(out, priceRepository.iteratePrices(), priceRepository.findHotArticleIds(hotSetSize));
+                }
+                Files.move(tempFile, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            log.info("Saved catalog snapshot to {}", snapshotPath);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Could not save catalog snapshot to {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        save();
+    }
+
+    // region Privates
+
+    private List<String> restore() {
+        if (!Files.exists(snapshotPath)) {
+            log.info("No catalog snapshot at {}, starting cold", snapshotPath);
+            return List.of();
+        }
+
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            var snapshot = CatalogSnapshot.read(in);
+            priceRepository.restore(snapshot.getPrices(), snapshot.getHotArticleIds());
+            log.info("Restored {} prices and {} hot articles from {}",
+                    snapshot.getPrices().size(), snapshot.getHotArticleIds().size(), snapshotPath);
+            return snapshot.getHotArticleIds();
+        } catch (IOException e) {
+            log.error("Could not restore catalog snapshot from {}, starting cold: {}", snapshotPath, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Prices baskets of hot articles on a service instance of its own, which compiles the same code paths without
+     * logging every call through the aspects of the application's service bean. Baskets alternate between a
+     * customer without a segment and one with a segment, so the discount lookup and rounding get compiled as well.
+     */
+    private void warmUp(List<String> hotArticleIds) {
+        if (hotArticleIds.isEmpty() || warmUpIterations <= 0)
+            return;
+
+        var service = new BasketCalculatorServiceImpl(priceRepository, discountRepository);
+        var customerIds = new ArrayList<String>();
+        customerIds.add(WARM_UP_CUSTOMER_ID);
+        discountRepository.findAnySegmentedCustomerId().ifPresent(customerIds::add);
+        int basketSize = Math.min(WARM_UP_BASKET_SIZE, hotArticleIds.size());
+        for (int i = 0; i < warmUpIterations; i++) {
+            var entries = new HashSet<BasketEntry>();
+            for (int j = 0; j < basketSize; j++) {
+                var articleId = hotArticleIds.get((i * basketSize + j) % hotArticleIds.size());
+                entries.add(new BasketEntry(articleId, BigDecimal.ONE));
+            }
+            try {
+                service.calculateBasket(new Basket(customerIds.get(i % customerIds.size()), entries));
+            } catch (RuntimeException e) {
+                log.warn("Stopping warm-up after {} iterations: {}", i, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    // endregion Privates
+}
@@ -0,0 +1,115 @@
+package digital.metro.pricing.calculator.timing;
+
+import java.util.Arrays;
+
+/**
+ * Per-request stage timers. Each worker thread reuses one instance that {@link ServerTimingFilter} resets at the
+ * start of a request, so starting and stopping a stage is a thread local read and two array writes. Stages may be
+ * started and stopped many times per request; their durations add up. Outside of a request, e.g. on async
+ * threads, the timers are inactive and recording is a no-op.
+ */
+public final class RequestTimings {
+    private static final ThreadLocal<RequestTimings> CURRENT = ThreadLocal.withInitial(RequestTimings::new);
+
+    private final long[] durations = new long[Stage.ALL.length];
+    private final long[] startedAt = new long[Stage.ALL.length];
+    private boolean active;
+    private long requestStartedAt;
+
+    private RequestTimings() {
+    }
+
+    public static void start(Stage stage) {
+        var timings = CURRENT.get();
+        if (timings.active)
+            timings.startedAt[stage.ordinal()] = System.nanoTime();
+    }
+
+    public static void stop(Stage stage) {
+        var timings = CURRENT.get();
+        int index = stage.ordinal();
+        if (timings.active && timings.startedAt[index] != 0) {
+            timings.durations[index] += System.nanoTime() - timings.startedAt[index];
+            timings.startedAt[index] = 0;
+        }
+    }
+
+    static RequestTimings begin() {
+        var timings = CURRENT.get();
+        Arrays.fill(timings.durations, 0L);
+        Arrays.fill(timings.startedAt, 0L);
+        timings.active = true;
+        timings.requestStartedAt = System.nanoTime();
+        return timings;
+    }
+
+    /**
+     * Stops every stage still running, e.g. {@link Stage#PARSE} after the body conversion failed and
+     * {@code afterBodyRead} was never called, so the time spent up to the failure is not lost.
+     */
+    static void stopRunning() {
+        for (Stage stage : Stage.ALL) {
+            stop(stage);
+        }
+    }
+
+        static RequestTimings current() {
+        var timings = CURRENT.get();
+        return timings.active ? timings : null;
+    }
+
+    /**
+     * Copies the stages recorded so far, for requests that go async and finish on another thread after this
+     * thread's instance has been reused. The copy is inactive; its elapsed time keeps counting from the start of
+     * the request.
+     */
+    RequestTimings detach() {
+        var copy = new RequestTimings();
+        System.arraycopy(durations, 0, copy.durations, 0, durations.length);
+        copy.requestStartedAt = requestStartedAt;
+        return copy;
+    }
+
+    /**
+     * @return the request duration so far, in nanoseconds
+     */
+    long end() {
+        active = false;
+        return System.nanoTime() - requestStartedAt;
+    }
+
+    long getDuration(Stage stage) {
+        return durations[stage.ordinal()];
+    }
+
+    long getElapsed() {
+        return System.nanoTime() - requestStartedAt;
+    }
+
+    /**
+     * Formats the recorded stages plus the elapsed request time as a {@code Server-Timing} header value,
+     * e.g. {@code parse;dur=0.12, price-lookup;dur=0.40, app;dur=0.91}.
+     */
+    String toServerTimingHeader() {
+        var header = new StringBuilder(128);
+        for (Stage stage : Stage.ALL) {
+            if (durations[stage.ordinal()] > 0)
+                appendMetric(header, stage.getMetricName(), durations[stage.ordinal()]);
+        }
+        appendMetric(header, "app", getElapsed());
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (header.length() > 0)
+            header.append(", ");
+        long micros = nanos / 1000;
+        header.append(name).append(";dur=").append(micros / 1000).append('.');
+        long fraction = micros % 1000;
+        if (fraction < 100)
+            header.append('0');
+        if (fraction < 10)
+            header.append('0');
+        header.append(fraction);
+    }
+}
@@ -0,0 +1,36 @@
+package digital.metro.pricing.calculator.timing;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the stages recorded so far as a {@code Server-Timing} header right before the response body is written,
+ * and starts timing the {@link Stage#SERIALIZE} stage.
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        var timings = RequestTimings.current();
+        if (timings != null) {
+            RequestTimings.stopRunning();
+            response.getHeaders().add(SERVER_TIMING_HEADER, timings.toServerTimingHeader());
+            RequestTimings.start(Stage.SERIALIZE);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,85 @@
+package digital.metro.pricing.calculator.timing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Starts the stage timers of every request and hands the finished breakdown to the {@link SlowRequestSampler}.
+ * Serialization runs after the {@code Server-Timing} header is written, so it only shows up in the samples.
+ * Requests that go async, like price list downloads, are sampled when the async request completes, with the
+ * stages recorded on the request thread and the full duration.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private SlowRequestSampler slowRequestSampler;
+
+    @Autowired
+    public ServerTimingFilter(SlowRequestSampler slowRequestSampler) {
+        this.slowRequestSampler = slowRequestSampler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var timings = RequestTimings.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTimings.stopRunning();
+            if (isAsyncStarted(request)) {
+                request.getAsyncContext().addListener(
+                        new SampleOnCompletion(request.getMethod(), request.getRequestURI(), timings.detach()));
+                timings.end();
+            } else {
+                long duration = timings.end();
+                slowRequestSampler.offer(request.getMethod(), request.getRequestURI(), duration, timings);
+            }
+        }
+    }
+
+    // region Privates
+
+    private class SampleOnCompletion implements AsyncListener {
+        private final String method;
+        private final String uri;
+        private final RequestTimings timings;
+
+        SampleOnCompletion(String method, String uri, RequestTimings timings) {
+            this.method = method;
+            this.uri = uri;
+            this.timings = timings;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            slowRequestSampler.offer(method, uri, timings.getElapsed(), timings);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    // endregion Privates
+}
@@ -0,0 +1,117 @@
+package digital.metro.pricing.calculator.timing;
+
+import digital.metro.pricing.calculator.dto.SlowRequestSample;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the full stage breakdown of the slowest requests of every minute. Requests faster than the slowest ones
+ * already kept for the current minute are rejected after reading the clock and two volatile fields, without
+ * locking or allocating.
+ * When a minute is over its samples move into a ring buffer holding the last {@code retainedMinutes} minutes.
+ */
+@Component
+public class SlowRequestSampler {
+    private static final long MILLIS_PER_MINUTE = 60_000;
+    private static final Comparator<SlowRequestSample> BY_DURATION =
+            Comparator.comparingDouble(SlowRequestSample::getDurationMillis);
+
+    private final int samplesPerMinute;
+    private final Clock clock;
+    private final PriorityQueue<SlowRequestSample> currentSamples;
+    private final SlowRequestSample[] retainedSamples;
+    private int nextRetained;
+    private volatile long currentMinute;
+    private volatile long admissionThresholdNanos;
+
+    @Autowired
+    public SlowRequestSampler(@Value("${timing.slow-requests.per-minute:10}") int samplesPerMinute,
+                              @Value("${timing.slow-requests.retained-minutes:60}") int retainedMinutes) {
+        this(samplesPerMinute, retainedMinutes, Clock.systemUTC());
+    }
+
+    SlowRequestSampler(int samplesPerMinute, int retainedMinutes, Clock clock) {
+        if (samplesPerMinute < 1 || retainedMinutes < 1)
+            throw new IllegalArgumentException("Slow request sampling needs at least one sample and one minute");
+
+        this.samplesPerMinute = samplesPerMinute;
+        this.clock = clock;
+        this.currentSamples = new PriorityQueue<>(samplesPerMinute, BY_DURATION);
+        this.retainedSamples = new SlowRequestSample[samplesPerMinute * retainedMinutes];
+        this.currentMinute = clock.millis() / MILLIS_PER_MINUTE;
+    }
+
+    void offer(String method, String uri, long durationNanos, RequestTimings timings) {
+        long minute = clock.millis() / MILLIS_PER_MINUTE;
+        if (durationNanos <= admissionThresholdNanos && minute == currentMinute)
+            return;
+
+        synchronized (this) {
+            rollOver(minute);
+            if (currentSamples.size() == samplesPerMinute) {
+                if (toMillis(durationNanos) <= currentSamples.peek().getDurationMillis())
+                    return;
+                currentSamples.poll();
+            }
+            currentSamples.add(toSample(method, uri, durationNanos, timings));
+            if (currentSamples.size() == samplesPerMinute)
+                admissionThresholdNanos = (long) (currentSamples.peek().getDurationMillis() * 1_000_000);
+        }
+    }
+
+    /**
+     * @return the sampled requests, the current minute first and the slowest first within a minute
+     */
+    public synchronized List<SlowRequestSample> getSamples() {
+        rollOver(clock.millis() / MILLIS_PER_MINUTE);
+
+        var samples = new ArrayList<>(currentSamples);
+        samples.sort(BY_DURATION.reversed());
+        for (int i = 1; i <= retainedSamples.length; i++) {
+            var sample = retainedSamples[Math.floorMod(nextRetained - i, retainedSamples.length)];
+            if (sample == null)
+                break;
+            samples.add(sample);
+        }
+        return samples;
+    }
+
+    // region Privates
+
+    private void rollOver(long minute) {
+        if (minute == currentMinute)
+            return;
+
+        var finished = new ArrayList<>(currentSamples);
+        finished.sort(BY_DURATION);
+        for (SlowRequestSample sample : finished) {
+            retainedSamples[nextRetained] = sample;
+            nextRetained = (nextRetained + 1) % retainedSamples.length;
+        }
+        currentSamples.clear();
+        admissionThresholdNanos = 0;
+        currentMinute = minute;
+    }
+
+    private SlowRequestSample toSample(String method, String uri, long durationNanos, RequestTimings timings) {
+        var stages = new LinkedHashMap<String, Double>();
+        for (Stage stage : Stage.ALL) {
+            stages.put(stage.getMetricName(), toMillis(timings.getDuration(stage)));
+        }
+        return new SlowRequestSample(method, uri, clock.instant(), toMillis(durationNanos), stages);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    // endregion Privates
+}
@@ -0,0 +1,21 @@
+package digital.metro.pricing.calculator.timing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The stages a request is broken down into, named as they appear in the {@code Server-Timing} header.
+ */
+@Getter
+@AllArgsConstructor
+public enum Stage {
+    PARSE("parse"),
+    VALIDATE("validate"),
+    PRICE_LOOKUP("price-lookup"),
+    DISCOUNT("discount"),
+    SERIALIZE("serialize");
+
+    static final Stage[] ALL = values();
+
+    private final String metricName;
+}
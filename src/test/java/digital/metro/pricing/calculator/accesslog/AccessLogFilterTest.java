@@ -0,0 +1,102 @@
+package digital.metro.pricing.calculator.accesslog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccessLogFilterTest {
+
+    private static final String BODY = "{\"customerId\":\"customer-1\",\"entries\":[]}";
+
+    private List<AccessLogRecord> records;
+    private AccessLogger accessLogger;
+
+    @BeforeEach
+    public void init() {
+        records = new ArrayList<>();
+        accessLogger = new AccessLogger(10) {
+            @Override
+            public void log(AccessLogRecord record) {
+                records.add(record);
+            }
+        };
+    }
+
+    @Test
+    public void testPayloadIsSampledUpToMaximumLength() throws Exception {
+        // GIVEN
+        var filter = new AccessLogFilter(accessLogger, 1.0, 15);
+        FilterChain chain = (request, response) -> request.getInputStream().readAllBytes();
+
+        // WHEN
+        filter.doFilter(getRequest(), new MockHttpServletResponse(), chain);
+
+        // THEN
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getPayload()).isEqualTo(BODY.substring(0, 15));
+        assertThat(records.get(0).getQueryString()).isEqualTo("format=CSV");
+    }
+
+    @Test
+    public void testPayloadIsLeftOutWhenNotSampled() throws Exception {
+        // GIVEN
+        var filter = new AccessLogFilter(accessLogger, 0.0, 1000);
+        FilterChain chain = (request, response) -> request.getInputStream().readAllBytes();
+
+        // WHEN
+        filter.doFilter(getRequest(), new MockHttpServletResponse(), chain);
+
+        // THEN
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getPayload()).isNull();
+        assertThat(records.get(0).getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    public void testAsyncRequestIsLoggedOnCompletionWithFinalStatusAndDuration() throws Exception {
+        // GIVEN
+        var filter = new AccessLogFilter(accessLogger, 0.0, 1000);
+        var request = getRequest();
+        request.setAsyncSupported(true);
+        var response = new MockHttpServletResponse();
+        FilterChain chain = (servletRequest, servletResponse) -> {
+            var asyncWebRequest = new StandardServletAsyncWebRequest(request, response);
+            WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(asyncWebRequest);
+            asyncWebRequest.startAsync();
+        };
+
+        // WHEN
+        filter.doFilter(request, response, chain);
+        var loggedBeforeCompletion = records.size();
+        Thread.sleep(20);
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        // THEN
+        assertThat(loggedBeforeCompletion).isZero();
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertThat(records.get(0).getDurationNanos()).isGreaterThanOrEqualTo(20_000_000L);
+        assertThat(records.get(0).getUri()).isEqualTo("/baskets");
+    }
+
+    private MockHttpServletRequest getRequest() {
+        var request = new MockHttpServletRequest("POST", "/baskets");
+        request.setQueryString("format=CSV");
+        request.setContentType("application/json");
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
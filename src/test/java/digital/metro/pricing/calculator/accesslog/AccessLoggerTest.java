@@ -0,0 +1,62 @@
+package digital.metro.pricing.calculator.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccessLoggerTest {
+
+    @Test
+    public void testRecordsAreDroppedAndCountedWhenQueueIsFull() {
+        // GIVEN
+        var accessLogger = new AccessLogger(2);
+
+        // WHEN
+        for (int i = 0; i < 5; i++) {
+            accessLogger.log(getRecord());
+        }
+
+        // THEN
+        var statistics = accessLogger.getStatistics();
+        assertThat(statistics.getQueuedCount()).isEqualTo(2);
+        assertThat(statistics.getDroppedCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testQueuedRecordsAreWrittenBeforeStopping() throws Exception {
+        // GIVEN
+        var accessLogger = new AccessLogger(10);
+        for (int i = 0; i < 5; i++) {
+            accessLogger.log(getRecord());
+        }
+
+        // WHEN
+        accessLogger.start();
+        accessLogger.stop();
+
+        // THEN
+        var statistics = accessLogger.getStatistics();
+        assertThat(statistics.getQueuedCount()).isZero();
+        assertThat(statistics.getDroppedCount()).isZero();
+    }
+
+    @Test
+    public void testPayloadIsWrittenAsEscapedStringOnOneLine() {
+        // GIVEN
+        var record = new AccessLogRecord(0L, "POST", "/baskets", null, 200, 1_000_000L,
+                "{\n  \"customerId\": \"customer-1\"\r\n}\n1970-01-01T00:00:00Z GET /admin status=200");
+
+        // WHEN
+        var line = AccessLogger.format(record);
+
+        // THEN
+        assertThat(line).doesNotContain("\n", "\r");
+        assertThat(line).isEqualTo("1970-01-01T00:00:00Z POST /baskets status=200 duration=1000us payload="
+                + "\"{\\n  \\\"customerId\\\": \\\"customer-1\\\"\\r\\n}\\n1970-01-01T00:00:00Z GET /admin status=200\"");
+    }
+
+    private AccessLogRecord getRecord() {
+        return new AccessLogRecord(System.currentTimeMillis(), "POST", "/baskets", null, 200, 1_000_000L,
+                "{\"customerId\":\"customer-1\"}");
+    }
+}
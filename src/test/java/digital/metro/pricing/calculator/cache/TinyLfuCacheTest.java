@@ -0,0 +1,179 @@
+package digital.metro.pricing.calculator.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TinyLfuCacheTest {
+
+    private static final int CACHE_SIZE = 500;
+    private static final int HOT_ARTICLES = 400;
+
+    @Test
+    public void testHotArticlesSurviveCatalogScan() {
+        // GIVEN
+        var cache = new TinyLfuCache<String, Integer>(CACHE_SIZE);
+        for (int round = 0; round < 5; round++) {
+            IntStream.range(0, HOT_ARTICLES).forEach(i -> cache.computeIfAbsent("hot-" + i, key -> 1));
+        }
+
+        // WHEN
+        IntStream.range(0, 50_000).forEach(i -> {
+            cache.computeIfAbsent("crawl-" + i, key -> 1);
+            cache.computeIfAbsent("hot-" + i % HOT_ARTICLES, key -> 1);
+        });
+
+        // THEN
+        var survivors = IntStream.range(0, HOT_ARTICLES).filter(i -> cache.containsKey("hot-" + i)).count();
+        assertThat(survivors).isEqualTo(HOT_ARTICLES);
+        assertThat(cache.size()).isEqualTo(CACHE_SIZE);
+    }
+
+    @Test
+    public void testHitRateIsBetterThanLruOnSkewedTrafficWithScans() {
+        // GIVEN
+        var trace = skewedTraceWithScans(new Random(42));
+        var cache = new TinyLfuCache<String, Integer>(CACHE_SIZE);
+        var lru = new LruCache(CACHE_SIZE);
+
+        // WHEN
+        trace.forEach(key -> {
+            cache.computeIfAbsent(key, k -> 1);
+            lru.access(key);
+        });
+
+        // THEN
+        assertThat(cache.getHitCount() + cache.getMissCount()).isEqualTo(trace.size());
+        assertThat(cache.getHitRate()).isGreaterThan(lru.getHitRate() + 0.05);
+    }
+
+    @Test
+    public void testCacheNeverExceedsMaximumSize() {
+        var cache = new TinyLfuCache<Integer, Integer>(3);
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i % 7, i));
+
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void testHottestKeysListsProtectedKeysFirst() {
+        // GIVEN
+        var cache = new TinyLfuCache<String, Integer>(CACHE_SIZE);
+        IntStream.range(0, 10).forEach(i -> cache.put("article-" + i, i));
+        cache.get("article-3");
+        cache.get("article-1");
+
+        // WHEN
+        var hottest = cache.hottestKeys(3);
+
+        // THEN
+        assertThat(hottest).containsExactly("article-1", "article-3", "article-4");
+    }
+
+    @Test
+    public void testConcurrentReadsAndWritesKeepCacheConsistent() throws Exception {
+        // GIVEN
+        var cache = new TinyLfuCache<Integer, Integer>(CACHE_SIZE);
+        var failures = new ConcurrentLinkedQueue<Throwable>();
+        var start = new CountDownLatch(1);
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            var random = new Random(t);
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 200_000; i++) {
+                        int key = random.nextInt(CACHE_SIZE * 4);
+                        if (i % 10 == 0)
+                            cache.put(key, key);
+                        else if (!Integer.valueOf(key).equals(cache.computeIfAbsent(key, k -> k)))
+                            throw new AssertionError("Wrong value for key " + key);
+                        if (i % 10_000 == 0)
+                            cache.hottestKeys(CACHE_SIZE);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+
+        // WHEN
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // THEN
+        assertThat(failures).isEmpty();
+        assertThat(cache.size()).isLessThanOrEqualTo(CACHE_SIZE);
+        var hottest = cache.hottestKeys(Integer.MAX_VALUE);
+        assertThat(hottest).hasSize(cache.size()).doesNotHaveDuplicates();
+        assertThat(hottest).allMatch(cache::containsKey);
+    }
+
+    /**
+     * Zipf distributed article requests over a catalog twenty times the cache size, interrupted every
+     * 20 000 requests by a crawl over 5 000 articles nobody else asks for.
+     */
+    private List<String> skewedTraceWithScans(Random random) {
+        int catalogSize = CACHE_SIZE * 20;
+        var cumulative = new double[catalogSize];
+        double sum = 0;
+        for (int rank = 0; rank < catalogSize; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+
+        var trace = new ArrayList<String>();
+        for (int batch = 0; batch < 10; batch++) {
+            for (int i = 0; i < 20_000; i++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                trace.add("article-" + (rank < 0 ? -rank - 1 : rank));
+            }
+            for (int i = 0; i < 5_000; i++) {
+                trace.add("crawl-" + batch + "-" + i);
+            }
+        }
+        return trace;
+    }
+
+    private static class LruCache extends LinkedHashMap<String, Integer> {
+        private final int maximumSize;
+        private long hits;
+        private long requests;
+
+        LruCache(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        void access(String key) {
+            requests++;
+            if (get(key) != null)
+                hits++;
+            else
+                put(key, 1);
+        }
+
+        double getHitRate() {
+            return (double) hits / requests;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > maximumSize;
+        }
+    }
+}
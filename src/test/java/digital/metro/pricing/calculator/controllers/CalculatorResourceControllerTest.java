@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import digital.metro.pricing.calculator.dto.Basket;
 import digital.metro.pricing.calculator.dto.BasketEntry;
 import digital.metro.pricing.calculator.exception.ExceptionResponse;
+import digital.metro.pricing.calculator.repositories.PriceRepository;
 import digital.metro.pricing.calculator.services.BasketCalculatorService;
 import digital.metro.pricing.calculator.validator.Validator;
 import org.junit.jupiter.api.Test;
@@ -12,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -20,9 +22,13 @@ import java.math.BigDecimal;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -33,6 +39,8 @@ public class CalculatorResourceControllerTest {
     private MockMvc mvc;
     @MockBean
     private BasketCalculatorService basketCalculatorService;
+    @SpyBean
+    private PriceRepository priceRepository;
     @Autowired
     private Validator validator;
     @Autowired
@@ -51,6 +59,18 @@ public class CalculatorResourceControllerTest {
         assertThat(mvcResult.getResponse().getStatus()).isEqualTo(200);
     }
 
+    @Test
+    void whenCalculateBasket_thenReturnsServerTimingHeader() throws Exception {
+        MvcResult mvcResult = mvc.perform(post("/baskets")
+                        .content(asJsonString(getBasket()))
+                        .contentType(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getHeader("Server-Timing"))
+                .contains("parse;dur=", "validate;dur=", "app;dur=");
+    }
+
     @Test
     void whenQuantityIsInvalid_thenReturnsStatus400() throws Exception {
         Basket basket = getInvalidBasket();
@@ -83,6 +103,32 @@ public class CalculatorResourceControllerTest {
         assertThat(mvcResult.getResponse().getStatus()).isEqualTo(200);
     }
 
+    @Test
+    void whenExportPriceList_thenStreamsCsv() throws Exception {
+        MvcResult mvcResult = mvc.perform(get("/customers/customer-1/price-list"))
+                .andExpect(request().asyncStarted()).andReturn();
+
+        mvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"));
+
+        assertThat(mvcResult.getResponse().getContentAsString()).startsWith("articleId,price\n");
+    }
+
+    @Test
+    void whenCatalogIsSharded_thenPriceListReturnsStatus501() throws Exception {
+        doReturn(false).when(priceRepository).coversWholeCatalog();
+
+        MvcResult mvcResult = mvc.perform(get("/customers/customer-1/price-list"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotImplemented())
+                .andReturn();
+
+        String responseBody = mvcResult.getResponse().getContentAsString();
+        assertThat(responseBody).isEqualToIgnoringWhitespace(
+                objectMapper.writeValueAsString(new ExceptionResponse("Price lists cannot be exported while the catalog is sharded")));
+    }
+
     private String asJsonString(final Object obj) {
         try {
             return objectMapper.writeValueAsString(obj);
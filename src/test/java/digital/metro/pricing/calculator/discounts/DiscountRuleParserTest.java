@@ -0,0 +1,77 @@
+package digital.metro.pricing.calculator.discounts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DiscountRuleParserTest {
+
+    private static final String RULES = String.join("\n",
+            "# comment",
+            "customer,customer-1,GOLD",
+            "customer,customer-2,PLATINUM",
+            "category,article-1,BEVERAGES",
+            "",
+            "rule,GOLD,*,0,0.90",
+            "rule,GOLD,*,100,0.88",
+            "rule,GOLD,BEVERAGES,50,0.80",
+            "rule,PLATINUM,BEVERAGES,0,0.85");
+
+    private CompiledDiscountRules rules;
+
+    @BeforeEach
+    public void init() throws Exception {
+        rules = new DiscountRuleParser().parse(new StringReader(RULES));
+    }
+
+    @Test
+    public void testFindFactorForWildcardRule() {
+        // WHEN
+        var result = rules.findFactor("customer-1", "article-2", new BigDecimal("10"));
+
+        // THEN
+        assertThat(result).hasValueSatisfying(factor -> assertThat(factor).isEqualByComparingTo("0.90"));
+    }
+
+    @Test
+    public void testFindFactorPicksHighestReachedTier() {
+        // WHEN
+        var belowTier = rules.findFactor("customer-1", "article-2", new BigDecimal("99.99"));
+        var atTier = rules.findFactor("customer-1", "article-2", new BigDecimal("100"));
+
+        // THEN
+        assertThat(belowTier).hasValueSatisfying(factor -> assertThat(factor).isEqualByComparingTo("0.90"));
+        assertThat(atTier).hasValueSatisfying(factor -> assertThat(factor).isEqualByComparingTo("0.88"));
+    }
+
+    @Test
+    public void testFindFactorPrefersLowestFactorAcrossCategoryAndWildcardRules() {
+        // WHEN
+        var belowCategoryTier = rules.findFactor("customer-1", "article-1", new BigDecimal("20"));
+        var aboveAllTiers = rules.findFactor("customer-1", "article-1", new BigDecimal("150"));
+
+        // THEN
+        assertThat(belowCategoryTier).hasValueSatisfying(factor -> assertThat(factor).isEqualByComparingTo("0.90"));
+        assertThat(aboveAllTiers).hasValueSatisfying(factor -> assertThat(factor).isEqualByComparingTo("0.80"));
+    }
+
+    @Test
+    public void testFindFactorWhenNoRuleApplies() {
+        assertThat(rules.findFactor("customer-2", "article-2", BigDecimal.TEN)).isEmpty();
+        assertThat(rules.findFactor("customer-3", "article-1", BigDecimal.TEN)).isEmpty();
+        assertThat(rules.findFactor(null, "article-1", BigDecimal.TEN)).isEmpty();
+    }
+
+    @Test
+    public void testParseWhenFactorIsOutOfRange() {
+        var exception = assertThrows(IllegalArgumentException.class, () ->
+                new DiscountRuleParser().parse(new StringReader("rule,GOLD,*,0,1.10")));
+
+        assertThat(exception.getMessage()).isEqualTo("Price factor 1.10 on line 1 must be in (0, 1]");
+    }
+}
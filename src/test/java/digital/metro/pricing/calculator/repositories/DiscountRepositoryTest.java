@@ -0,0 +1,75 @@
+package digital.metro.pricing.calculator.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DiscountRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path rulesFile;
+    private DiscountRepository repository;
+
+    @BeforeEach
+    public void init() throws Exception {
+        rulesFile = tempDir.resolve("discount-rules.csv");
+        writeRules("customer,customer-1,GOLD\nrule,GOLD,*,0,0.90", Instant.parse("2026-01-01T10:00:00Z"));
+        repository = new DiscountRepository(new DefaultResourceLoader(), rulesFile.toUri().toString());
+    }
+
+    @Test
+    public void testReloadIfModifiedSwapsInChangedRules() throws Exception {
+        // GIVEN
+        writeRules("customer,customer-1,GOLD\nrule,GOLD,*,0,0.80", Instant.parse("2026-01-01T10:05:00Z"));
+
+        // WHEN
+        repository.reloadIfModified();
+
+        // THEN
+        assertThat(repository.findDiscount("customer-1", "article-1", BigDecimal.ZERO))
+                .hasValueSatisfying(factor -> assertThat(factor).isEqualByComparingTo("0.80"));
+    }
+
+    @Test
+    public void testReloadIfModifiedKeepsPreviousRulesWhenFileIsInvalid() throws Exception {
+        // GIVEN
+        writeRules("customer,customer-1,GOLD\nrule,GOLD,*,0,1.50", Instant.parse("2026-01-01T10:05:00Z"));
+
+        // WHEN
+        repository.reloadIfModified();
+
+        // THEN
+        assertThat(repository.findDiscount("customer-1", "article-1", BigDecimal.ZERO))
+                .hasValueSatisfying(factor -> assertThat(factor).isEqualByComparingTo("0.90"));
+    }
+
+    @Test
+    public void testReloadIfModifiedIgnoresUnchangedFile() throws Exception {
+        // GIVEN
+        Files.writeString(rulesFile, "customer,customer-1,GOLD\nrule,GOLD,*,0,0.70");
+        Files.setLastModifiedTime(rulesFile, FileTime.from(Instant.parse("2026-01-01T10:00:00Z")));
+
+        // WHEN
+        repository.reloadIfModified();
+
+        // THEN
+        assertThat(repository.findDiscount("customer-1", "article-1", BigDecimal.ZERO))
+                .hasValueSatisfying(factor -> assertThat(factor).isEqualByComparingTo("0.90"));
+    }
+
+    private void writeRules(String rules, Instant lastModified) throws Exception {
+        Files.writeString(rulesFile, rules);
+        Files.setLastModifiedTime(rulesFile, FileTime.from(lastModified));
+    }
+}
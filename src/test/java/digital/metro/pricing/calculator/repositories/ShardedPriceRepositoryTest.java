@@ -0,0 +1,180 @@
+package digital.metro.pricing.calculator.repositories;
+
+import digital.metro.pricing.calculator.exception.ShardUnavailableException;
+import digital.metro.pricing.calculator.sharding.ConsistentHashRing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.UnorderedRequestExpectationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class ShardedPriceRepositoryTest {
+
+    private static final String SELF = "http://peer-0";
+    private static final String PEER_A = "http://peer-a";
+    private static final String PEER_B = "http://peer-b";
+    private static final String PEER_C = "http://peer-c";
+    private static final List<String> PEERS = List.of(SELF, PEER_A, PEER_B, PEER_C);
+    private static final int VIRTUAL_NODES = 128;
+    private static final long TIMEOUT_MILLIS = 200;
+
+    private ConsistentHashRing ring = new ConsistentHashRing(PEERS, VIRTUAL_NODES);
+    private ShardedPriceRepository repository;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    public void init() {
+        var customizer = new MockServerRestTemplateCustomizer(UnorderedRequestExpectationManager.class);
+        repository = new ShardedPriceRepository(100, SELF, PEERS, VIRTUAL_NODES, 100, 4, 10, TIMEOUT_MILLIS,
+                new RestTemplateBuilder(customizer));
+        server = customizer.getServer();
+    }
+
+    @AfterEach
+    public void shutdown() {
+        repository.shutdown();
+    }
+
+    @Test
+    public void testRemoteArticlesAreFetchedInOneBatchPerOwner() {
+        // GIVEN
+        var localIds = articlesOwnedBy(SELF, 1);
+        var peerAIds = articlesOwnedBy(PEER_A, 2);
+        var peerBIds = articlesOwnedBy(PEER_B, 2);
+        expectPrices(PEER_A, peerAIds);
+        expectPrices(PEER_B, peerBIds);
+        var articleIds = new ArrayList<String>();
+        articleIds.addAll(localIds);
+        articleIds.addAll(peerAIds);
+        articleIds.addAll(peerBIds);
+
+        // WHEN
+        var result = repository.findPricesByArticleIds(articleIds);
+
+        // THEN
+        server.verify();
+        assertThat(result).containsOnlyKeys(articleIds.toArray(new String[0]));
+        assertThat(result.get(peerAIds.get(0))).isEqualByComparingTo("1.00");
+        assertThat(result.get(peerBIds.get(1))).isEqualByComparingTo("2.00");
+    }
+
+    @Test
+    public void testSecondLookupIsServedFromNearCache() {
+        // GIVEN
+        var peerAIds = articlesOwnedBy(PEER_A, 2);
+        expectPrices(PEER_A, peerAIds);
+        repository.findPricesByArticleIds(peerAIds);
+
+        // WHEN
+        var price = repository.findPriceByArticleId(peerAIds.get(1));
+
+        // THEN
+        server.verify();
+        assertThat(price).isEqualByComparingTo("2.00");
+    }
+
+    @Test
+    public void testFailingPeerMakesShardUnavailable() {
+        // GIVEN
+        var peerAIds = articlesOwnedBy(PEER_A, 1);
+        server.expect(once(), requestTo(PEER_A + "/internal/prices")).andRespond(withServerError());
+
+        // WHEN / THEN
+        assertThatThrownBy(() -> repository.findPricesByArticleIds(peerAIds))
+                .isInstanceOf(ShardUnavailableException.class)
+                .hasMessageContaining(PEER_A);
+    }
+
+    @Test
+    public void testSlowPeersShareOneTimeoutAndAreCancelled() throws Exception {
+        // GIVEN
+        var slowPeers = List.of(PEER_A, PEER_B, PEER_C);
+        var cancelled = new CountDownLatch(slowPeers.size());
+        var articleIds = new ArrayList<String>();
+        for (String peer : slowPeers) {
+            articleIds.addAll(articlesOwnedBy(peer, 1));
+            server.expect(once(), requestTo(peer + "/internal/prices")).andRespond(request -> {
+                try {
+                    Thread.sleep(TIMEOUT_MILLIS * 10);
+                } catch (InterruptedException e) {
+                    cancelled.countDown();
+                }
+                return withSuccess("{}", APPLICATION_JSON).createResponse(request);
+            });
+        }
+
+        // WHEN
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> repository.findPricesByArticleIds(articleIds))
+                .isInstanceOf(ShardUnavailableException.class);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // THEN
+        assertThat(elapsedMillis).isLessThan(TIMEOUT_MILLIS * 2);
+        assertThat(cancelled.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void testShardedRepositoryDoesNotCoverWholeCatalog() {
+        assertThat(repository.coversWholeCatalog()).isFalse();
+    }
+
+    @Test
+    public void testOwnedPricesLeaveOutArticlesOfOtherPeers() {
+        // GIVEN
+        var localIds = articlesOwnedBy(SELF, 2);
+        var articleIds = new ArrayList<>(localIds);
+        articleIds.addAll(articlesOwnedBy(PEER_A, 2));
+
+        // WHEN
+        var result = repository.findOwnedPrices(articleIds);
+
+        // THEN
+        assertThat(result).containsOnlyKeys(localIds.toArray(new String[0]));
+    }
+
+    /**
+     * Expects one batched request for the given articles, answered with prices 1.00, 2.00, ... in that order.
+     */
+    private void expectPrices(String peer, List<String> articleIds) {
+        var requestBody = new StringBuilder("[");
+        var responseBody = new StringBuilder("{");
+        for (int i = 0; i < articleIds.size(); i++) {
+            var separator = i == 0 ? "" : ",";
+            requestBody.append(separator).append('"').append(articleIds.get(i)).append('"');
+            responseBody.append(separator).append('"').append(articleIds.get(i)).append("\":").append(i + 1).append(".00");
+        }
+        server.expect(once(), requestTo(peer + "/internal/prices"))
+                .andExpect(method(POST))
+                .andExpect(content().json(requestBody.append(']').toString()))
+                .andRespond(withSuccess(responseBody.append('}').toString(), APPLICATION_JSON));
+    }
+
+    private List<String> articlesOwnedBy(String peer, int count) {
+        return IntStream.iterate(0, i -> i + 1)
+                .mapToObj(i -> "article-" + i)
+                .filter(articleId -> peer.equals(ring.ownerOf(articleId)))
+                .limit(count)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,5 +1,6 @@
 package digital.metro.pricing.calculator.services;
 
+import digital.metro.pricing.calculator.discounts.DiscountRuleParser;
 import digital.metro.pricing.calculator.dto.Basket;
 import digital.metro.pricing.calculator.dto.BasketCalculationResult;
 import digital.metro.pricing.calculator.dto.BasketEntry;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.util.Map;
 import java.util.Optional;
@@ -19,10 +21,21 @@ import java.util.Set;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class BasketCalculatorServiceTest {
 
+    private static final String GOLD_RULES = "customer,customer-1,GOLD\nrule,GOLD,*,0,0.90";
+    private static final String TIERED_RULES = String.join("\n",
+            "customer,customer-1,GOLD",
+            "category,article-4,BEVERAGES",
+            "rule,GOLD,*,0,0.90",
+            "rule,GOLD,*,50,0.80",
+            "rule,GOLD,BEVERAGES,0,0.75");
+
     @Mock
     private PriceRepository mockPriceRepository;
     @Mock
@@ -59,7 +72,7 @@ public class BasketCalculatorServiceTest {
         var customerId = "customer-1";
 
         when(mockPriceRepository.findPriceByArticleId(articleId)).thenReturn(standardPrice);
-        when(mockDiscountRepository.findDiscountByCustomerId(customerId)).thenReturn(Optional.of(new BigDecimal("0.9")));
+        when(mockDiscountRepository.findDiscount(customerId, articleId, BigDecimal.ZERO)).thenReturn(Optional.of(new BigDecimal("0.9")));
 
         // WHEN
         var result = service.getArticlePriceForCustomer(articleId, "customer-1");
@@ -69,7 +82,7 @@ public class BasketCalculatorServiceTest {
     }
 
     @Test
-    public void testCalculateBasketWhenCustomerHasDiscount() {
+    public void testCalculateBasketWhenCustomerHasDiscount() throws Exception {
         // GIVEN
         var basket = getBasket(new BigDecimal("4"), new BigDecimal("2"), BigDecimal.ONE);
 
@@ -77,10 +90,8 @@ public class BasketCalculatorServiceTest {
 
         var pricedArticles = getPricedArticles(new BigDecimal("5.40"), new BigDecimal("1.04"), new BigDecimal("8.99"));
 
-        when(mockPriceRepository.findPriceByArticleId("article-1")).thenReturn(prices.get("article-1"));
-        when(mockPriceRepository.findPriceByArticleId("article-2")).thenReturn(prices.get("article-2"));
-        when(mockPriceRepository.findPriceByArticleId("article-3")).thenReturn(prices.get("article-3"));
-        when(mockDiscountRepository.findDiscountByCustomerId(any())).thenReturn(Optional.of(new BigDecimal("0.9")));
+        when(mockPriceRepository.findPricesByArticleIds(any())).thenReturn(prices);
+        useDiscountRules(GOLD_RULES);
 
         // WHEN
         var result = service.calculateBasket(basket);
@@ -92,7 +103,7 @@ public class BasketCalculatorServiceTest {
     }
 
     @Test
-    public void testCalculateBasketWhenCustomerHasNoDiscount() {
+    public void testCalculateBasketWhenCustomerHasNoDiscount() throws Exception {
         // GIVEN
         var basket = getBasketForNonDiscountedCustomer(new BigDecimal("4"), new BigDecimal("2"), BigDecimal.ONE);
 
@@ -100,10 +111,8 @@ public class BasketCalculatorServiceTest {
 
         var pricedArticles = getPricedArticles(new BigDecimal("6.00"), new BigDecimal("1.16"), new BigDecimal("9.99"));
 
-        when(mockPriceRepository.findPriceByArticleId("article-1")).thenReturn(prices.get("article-1"));
-        when(mockPriceRepository.findPriceByArticleId("article-2")).thenReturn(prices.get("article-2"));
-        when(mockPriceRepository.findPriceByArticleId("article-3")).thenReturn(prices.get("article-3"));
-        when(mockDiscountRepository.findDiscountByCustomerId(any())).thenReturn(Optional.of(BigDecimal.ONE));
+        when(mockPriceRepository.findPricesByArticleIds(any())).thenReturn(prices);
+        useDiscountRules(GOLD_RULES);
 
         // WHEN
         var result = service.calculateBasket(basket);
@@ -136,9 +145,7 @@ public class BasketCalculatorServiceTest {
         // GIVEN
         var basket = getBasket(new BigDecimal(11), BigDecimal.ONE, BigDecimal.ONE);
         var prices = getPrices(new BigDecimal("1.50"), new BigDecimal("0.58"), new BigDecimal("9.99"));
-        when(mockPriceRepository.findPriceByArticleId("article-1")).thenReturn(prices.get("article-1"));
-        when(mockPriceRepository.findPriceByArticleId("article-2")).thenReturn(prices.get("article-2"));
-        when(mockPriceRepository.findPriceByArticleId("article-3")).thenReturn(prices.get("article-3"));
+        when(mockPriceRepository.findPricesByArticleIds(any())).thenReturn(prices);
         // WHEN
         var exception = assertThrows(IllegalArgumentException.class, () -> {
             service.calculateBasket(basket);
@@ -151,6 +158,83 @@ public class BasketCalculatorServiceTest {
 
     }
 
+    @Test
+    public void testCalculateBasketWhenUndiscountedValueReachesTier() throws Exception {
+        // GIVEN
+        var basket = getBasket(new BigDecimal("3"), new BigDecimal("3"), new BigDecimal("3"));
+        var prices = getPrices(new BigDecimal("10.00"), new BigDecimal("5.00"), new BigDecimal("2.00"));
+        when(mockPriceRepository.findPricesByArticleIds(any())).thenReturn(prices);
+        useDiscountRules(TIERED_RULES);
+
+        // WHEN
+        var result = service.calculateBasket(basket);
+
+        // THEN
+        var pricedArticles = getPricedArticles(new BigDecimal("24.00"), new BigDecimal("12.00"), new BigDecimal("4.80"));
+        assertThat(result.getPricedBasketEntries()).isEqualTo(pricedArticles);
+        assertThat(result.getTotalAmount()).isEqualByComparingTo(new BigDecimal("40.80"));
+    }
+
+    @Test
+    public void testCalculateBasketWhenUndiscountedValueIsBelowTier() throws Exception {
+        // GIVEN
+        var basket = getBasket(new BigDecimal("3"), new BigDecimal("3"), new BigDecimal("2"));
+        var prices = getPrices(new BigDecimal("10.00"), new BigDecimal("5.00"), new BigDecimal("2.00"));
+        when(mockPriceRepository.findPricesByArticleIds(any())).thenReturn(prices);
+        useDiscountRules(TIERED_RULES);
+
+        // WHEN
+        var result = service.calculateBasket(basket);
+
+        // THEN
+        var pricedArticles = getPricedArticles(new BigDecimal("27.00"), new BigDecimal("13.50"), new BigDecimal("3.60"));
+        assertThat(result.getPricedBasketEntries()).isEqualTo(pricedArticles);
+        assertThat(result.getTotalAmount()).isEqualByComparingTo(new BigDecimal("44.10"));
+    }
+
+    @Test
+    public void testCalculateBasketBindsDiscountsOncePerBasket() throws Exception {
+        // GIVEN
+        var basket = getBasket(new BigDecimal("4"), new BigDecimal("2"), BigDecimal.ONE);
+        var prices = getPrices(new BigDecimal("1.50"), new BigDecimal("0.58"), new BigDecimal("9.99"));
+        when(mockPriceRepository.findPricesByArticleIds(any())).thenReturn(prices);
+        useDiscountRules(GOLD_RULES);
+
+        // WHEN
+        service.calculateBasket(basket);
+
+        // THEN
+        verify(mockDiscountRepository, times(1)).findDiscountsForCustomer("customer-1");
+        verify(mockDiscountRepository, never()).findDiscount(any(), any(), any());
+    }
+
+    @Test
+    public void testGetArticlePriceWhenCategoryRuleApplies() throws Exception {
+        // GIVEN
+        when(mockPriceRepository.findPriceByArticleId("article-4")).thenReturn(new BigDecimal("10.00"));
+        when(mockPriceRepository.findPriceByArticleId("article-2")).thenReturn(new BigDecimal("10.00"));
+        useDiscountRules(TIERED_RULES);
+
+        // WHEN
+        var categoryPrice = service.getArticlePriceForCustomer("article-4", "customer-1");
+        var wildcardPrice = service.getArticlePriceForCustomer("article-2", "customer-1");
+
+        // THEN
+        assertThat(categoryPrice).isEqualByComparingTo(new BigDecimal("7.50"));
+        assertThat(wildcardPrice).isEqualByComparingTo(new BigDecimal("9.00"));
+    }
+
+    /**
+     * Answers discount lookups from real compiled rules, so the basket value the service passes in decides the tier.
+     */
+    private void useDiscountRules(String rules) throws Exception {
+        var compiledRules = new DiscountRuleParser().parse(new StringReader(rules));
+        when(mockDiscountRepository.findDiscountsForCustomer(any())).thenAnswer(invocation ->
+                compiledRules.forCustomer(invocation.getArgument(0)));
+        when(mockDiscountRepository.findDiscount(any(), any(), any())).thenAnswer(invocation -> compiledRules.findFactor(
+                invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+    }
+
     private Map<String, BigDecimal> getPricedArticles(BigDecimal price1, BigDecimal price2, BigDecimal price3) {
         var pricedArticles = Map.of(
                 "article-1", price1,
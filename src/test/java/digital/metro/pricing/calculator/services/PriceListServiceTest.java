@@ -0,0 +1,110 @@
+package digital.metro.pricing.calculator.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digital.metro.pricing.calculator.discounts.DiscountRuleParser;
+import digital.metro.pricing.calculator.dto.PriceListFormat;
+import digital.metro.pricing.calculator.exception.PriceListUnavailableException;
+import digital.metro.pricing.calculator.repositories.DiscountRepository;
+import digital.metro.pricing.calculator.repositories.PriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class PriceListServiceTest {
+
+    @Mock
+    private PriceRepository mockPriceRepository;
+    @Mock
+    private DiscountRepository mockDiscountRepository;
+
+    private PriceListService service;
+    private LinkedHashMap<String, BigDecimal> prices;
+
+    @BeforeEach
+    public void init() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        service = new PriceListServiceImpl(mockPriceRepository, mockDiscountRepository, new ObjectMapper());
+
+        prices = new LinkedHashMap<>();
+        prices.put("article-1", new BigDecimal("1.50"));
+        prices.put("article,2", new BigDecimal("9.99"));
+        when(mockPriceRepository.coversWholeCatalog()).thenReturn(true);
+        when(mockPriceRepository.iteratePrices()).thenAnswer(invocation -> prices.entrySet().iterator());
+
+        var rules = new DiscountRuleParser().parse(new StringReader("customer,customer-1,GOLD\nrule,GOLD,*,0,0.90"));
+        when(mockDiscountRepository.findDiscountsForCustomer("customer-1")).thenReturn(rules.forCustomer("customer-1"));
+        when(mockDiscountRepository.findDiscountsForCustomer("customer-3")).thenReturn(rules.forCustomer("customer-3"));
+    }
+
+    @Test
+    public void testExportPriceListAsCsvWhenCustomerHasDiscount() throws Exception {
+        // WHEN
+        var result = export("customer-1", PriceListFormat.CSV);
+
+        // THEN
+        assertThat(result).isEqualTo("articleId,price\narticle-1,1.35\n\"article,2\",8.99\n");
+    }
+
+    @Test
+    public void testExportPriceListAsNdjsonWhenCustomerHasNoDiscount() throws Exception {
+        // WHEN
+        var result = export("customer-3", PriceListFormat.NDJSON);
+
+        // THEN
+        assertThat(result).isEqualTo("{\"articleId\":\"article-1\",\"price\":1.50}\n"
+                + "{\"articleId\":\"article,2\",\"price\":9.99}\n");
+    }
+
+    @Test
+    public void testExportPriceListMatchesSingleArticlePricesWithCategoryRule() throws Exception {
+        // GIVEN
+        var rules = new DiscountRuleParser().parse(new StringReader(
+                "customer,customer-2,PLATINUM\ncategory,article-1,BEVERAGES\n"
+                        + "rule,PLATINUM,*,0,0.85\nrule,PLATINUM,BEVERAGES,0,0.70"));
+        when(mockDiscountRepository.findDiscountsForCustomer("customer-2")).thenReturn(rules.forCustomer("customer-2"));
+        when(mockDiscountRepository.findDiscount(anyString(), anyString(), any())).thenAnswer(invocation ->
+                rules.findFactor(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+        when(mockPriceRepository.findPriceByArticleId(anyString())).thenAnswer(invocation -> prices.get(invocation.getArgument(0)));
+        var basketCalculatorService = new BasketCalculatorServiceImpl(mockPriceRepository, mockDiscountRepository);
+
+        // WHEN
+        var result = export("customer-2", PriceListFormat.CSV);
+
+        // THEN
+        assertThat(result).isEqualTo("articleId,price\narticle-1,"
+                + basketCalculatorService.getArticlePriceForCustomer("article-1", "customer-2") + "\n\"article,2\","
+                + basketCalculatorService.getArticlePriceForCustomer("article,2", "customer-2") + "\n");
+        assertThat(result).isEqualTo("articleId,price\narticle-1,1.05\n\"article,2\",8.49\n");
+    }
+
+    @Test
+    public void testExportPriceListIsRejectedWhenCatalogIsSharded() {
+        // GIVEN
+        when(mockPriceRepository.coversWholeCatalog()).thenReturn(false);
+        var outputStream = new ByteArrayOutputStream();
+
+        // WHEN / THEN
+        assertThrows(PriceListUnavailableException.class,
+                () -> service.exportPriceList("customer-1", PriceListFormat.CSV, outputStream));
+        assertThat(outputStream.size()).isZero();
+    }
+
+    private String export(String customerId, PriceListFormat format) throws Exception {
+        var outputStream = new ByteArrayOutputStream();
+        service.exportPriceList(customerId, format, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,48 @@
+package digital.metro.pricing.calculator.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConsistentHashRingTest {
+
+    private static final List<String> PEERS = List.of(
+            "http://localhost:8080", "http://localhost:8081", "http://localhost:8082");
+    private static final int ARTICLES = 30_000;
+
+    @Test
+    public void testArticlesAreSpreadEvenlyAcrossPeers() {
+        // GIVEN
+        var ring = new ConsistentHashRing(PEERS, 128);
+
+        // WHEN
+        var articlesPerPeer = new HashMap<String, Integer>();
+        IntStream.range(0, ARTICLES).forEach(i -> articlesPerPeer.merge(ring.ownerOf("article-" + i), 1, Integer::sum));
+
+        // THEN
+        assertThat(articlesPerPeer).containsOnlyKeys(PEERS.toArray(new String[0]));
+        articlesPerPeer.values().forEach(count -> assertThat(count).isBetween(ARTICLES / 3 * 8 / 10, ARTICLES / 3 * 12 / 10));
+    }
+
+    @Test
+    public void testAddingPeerOnlyMovesArticlesToTheNewPeer() {
+        // GIVEN
+        var ring = new ConsistentHashRing(PEERS, 128);
+        var newPeer = "http://localhost:8083";
+        var grownRing = new ConsistentHashRing(List.of(PEERS.get(0), PEERS.get(1), PEERS.get(2), newPeer), 128);
+
+        // WHEN
+        var moved = IntStream.range(0, ARTICLES)
+                .mapToObj(i -> "article-" + i)
+                .filter(articleId -> !ring.ownerOf(articleId).equals(grownRing.ownerOf(articleId)))
+                .peek(articleId -> assertThat(grownRing.ownerOf(articleId)).isEqualTo(newPeer))
+                .count();
+
+        // THEN
+        assertThat(moved).isBetween(ARTICLES / 4 * 8 / 10L, ARTICLES / 4 * 12 / 10L);
+    }
+}
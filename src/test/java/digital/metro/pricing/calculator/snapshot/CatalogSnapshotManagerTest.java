@@ -0,0 +1,143 @@
+package digital.metro.pricing.calculator.snapshot;
+
+import digital.metro.pricing.calculator.repositories.DiscountRepository;
+import digital.metro.pricing.calculator.repositories.PriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CatalogSnapshotManagerTest {
+
+    private static final Map<String, BigDecimal> PRICES = Map.of(
+            "article-1", new BigDecimal("1.50"),
+            "article-2", new BigDecimal("9.99"));
+
+    @TempDir
+    Path snapshotDir;
+
+    @Mock
+    private DiscountRepository mockDiscountRepository;
+
+    private Path snapshotPath;
+    private PriceRepository priceRepository;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+        snapshotPath = snapshotDir.resolve("catalog.snapshot");
+        priceRepository = new PriceRepository(100);
+    }
+
+    @Test
+    public void testRestoresPricesAndHotArticlesFromSnapshot() throws Exception {
+        // GIVEN
+        writeSnapshot(PRICES, List.of("article-2"));
+
+        // WHEN
+        getManager(priceRepository, true).afterSingletonsInstantiated();
+
+        // THEN
+        assertThat(priceRepository.findHotArticleIds(10)).containsExactly("article-2");
+        assertThat(priceRepository.findPriceByArticleId("article-1")).isEqualTo(new BigDecimal("1.50"));
+    }
+
+    @Test
+    public void testStartsColdWhenSnapshotIsCorrupt() throws Exception {
+        // GIVEN
+        Files.write(snapshotPath, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        // WHEN
+        getManager(priceRepository, true).afterSingletonsInstantiated();
+
+        // THEN
+        assertThat(priceRepository.iteratePrices().hasNext()).isFalse();
+        assertThat(priceRepository.findHotArticleIds(10)).isEmpty();
+    }
+
+    @Test
+    public void testSaveReplacesSnapshotWithoutLeavingTemporaryFiles() throws Exception {
+        // GIVEN
+        writeSnapshot(Map.of("article-old", BigDecimal.ONE), List.of());
+        priceRepository.restore(PRICES, List.of("article-1"));
+
+        // WHEN
+        getManager(priceRepository, true).save();
+
+        // THEN
+        var snapshot = readSnapshot();
+        assertThat(snapshot.getPrices()).isEqualTo(PRICES);
+        assertThat(snapshot.getHotArticleIds()).containsExactly("article-1");
+        assertThat(listSnapshotDir()).containsExactly("catalog.snapshot");
+    }
+
+    @Test
+    public void testFailedSaveKeepsPreviousSnapshotAndDeletesTemporaryFile() throws Exception {
+        // GIVEN
+        writeSnapshot(PRICES, List.of());
+        var failingPriceRepository = mock(PriceRepository.class);
+        when(failingPriceRepository.iteratePrices()).thenThrow(new UncheckedIOException(new IOException("No space left on device")));
+
+        // WHEN
+        getManager(failingPriceRepository, true).save();
+
+        // THEN
+        assertThat(readSnapshot().getPrices()).isEqualTo(PRICES);
+        assertThat(listSnapshotDir()).containsExactly("catalog.snapshot");
+    }
+
+    @Test
+    public void testDisabledManagerNeitherRestoresNorSaves() throws Exception {
+        // GIVEN
+        writeSnapshot(PRICES, List.of("article-2"));
+        var manager = getManager(priceRepository, false);
+
+        // WHEN
+        manager.afterSingletonsInstantiated();
+        Files.delete(snapshotPath);
+        manager.save();
+
+        // THEN
+        assertThat(priceRepository.iteratePrices().hasNext()).isFalse();
+        assertThat(listSnapshotDir()).isEmpty();
+    }
+
+    private CatalogSnapshotManager getManager(PriceRepository repository, boolean enabled) {
+        return new CatalogSnapshotManager(repository, mockDiscountRepository, enabled, snapshotPath.toString(), 10, 0);
+    }
+
+    private void writeSnapshot(Map<String, BigDecimal> prices, List<String> hotArticleIds) throws IOException {
+        try (var out = new DataOutputStream(Files.newOutputStream(snapshotPath))) {
+            CatalogSnapshot.write(out, prices.entrySet().iterator(), hotArticleIds);
+        }
+    }
+
+    private CatalogSnapshot readSnapshot() throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            return CatalogSnapshot.read(in);
+        }
+    }
+
+    private List<String> listSnapshotDir() throws IOException {
+        try (var files = Files.list(snapshotDir)) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toList());
+        }
+    }
+}
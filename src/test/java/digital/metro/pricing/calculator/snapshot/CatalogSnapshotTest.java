@@ -0,0 +1,49 @@
+package digital.metro.pricing.calculator.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CatalogSnapshotTest {
+
+    @Test
+    public void testReadReturnsWhatWasWritten() throws Exception {
+        // GIVEN
+        var prices = Map.of(
+                "article-1", new BigDecimal("13.3087520372"),
+                "article-2", new BigDecimal("0.50"),
+                "article-3", new BigDecimal("1E+3"));
+        var hotArticleIds = List.of("article-2", "article-1");
+
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            CatalogSnapshot.write(out, prices.entrySet().iterator(), hotArticleIds);
+        }
+
+        // WHEN
+        var snapshot = CatalogSnapshot.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // THEN
+        assertThat(snapshot.getPrices()).isEqualTo(prices);
+        assertThat(snapshot.getHotArticleIds()).isEqualTo(hotArticleIds);
+    }
+
+    @Test
+    public void testReadWhenFileIsNotASnapshot() {
+        var in = new DataInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+
+        var exception = assertThrows(IOException.class, () -> CatalogSnapshot.read(in));
+
+        assertThat(exception.getMessage()).isEqualTo("Not a catalog snapshot");
+    }
+}
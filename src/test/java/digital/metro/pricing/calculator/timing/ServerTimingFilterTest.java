@@ -0,0 +1,86 @@
+package digital.metro.pricing.calculator.timing;
+
+import digital.metro.pricing.calculator.dto.Basket;
+import digital.metro.pricing.calculator.dto.BasketEntry;
+import digital.metro.pricing.calculator.exception.ShardUnavailableException;
+import digital.metro.pricing.calculator.repositories.DiscountRepository;
+import digital.metro.pricing.calculator.repositories.PriceRepository;
+import digital.metro.pricing.calculator.services.BasketCalculatorServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class ServerTimingFilterTest {
+
+    private static final long STAGE_MILLIS = 20;
+
+    @Mock
+    private PriceRepository mockPriceRepository;
+    @Mock
+    private DiscountRepository mockDiscountRepository;
+
+    private SlowRequestSampler sampler;
+    private ServerTimingFilter filter;
+
+    @BeforeEach
+    public void init() {
+        MockitoAnnotations.openMocks(this);
+        sampler = new SlowRequestSampler(10, 1);
+        filter = new ServerTimingFilter(sampler);
+    }
+
+    @Test
+    public void testFailedPriceLookupIsCreditedToItsStage() {
+        // GIVEN
+        when(mockPriceRepository.findPricesByArticleIds(any())).thenAnswer(invocation -> {
+            Thread.sleep(STAGE_MILLIS);
+            throw new ShardUnavailableException("Could not get prices from http://peer-a", null);
+        });
+        var service = new BasketCalculatorServiceImpl(mockPriceRepository, mockDiscountRepository);
+        var basket = new Basket("customer-1", Set.of(new BasketEntry("article-1", BigDecimal.ONE)));
+        FilterChain chain = (request, response) -> service.calculateBasket(basket);
+
+        // WHEN
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("POST", "/baskets"), new MockHttpServletResponse(), chain))
+                .isInstanceOf(ShardUnavailableException.class);
+
+        // THEN
+        var sample = sampler.getSamples().get(0);
+        assertThat(sample.getUri()).isEqualTo("/baskets");
+        assertThat(sample.getStagesMillis().get(Stage.PRICE_LOOKUP.getMetricName())).isGreaterThanOrEqualTo(STAGE_MILLIS);
+    }
+
+    @Test
+    public void testFailedBodyConversionIsCreditedToParseStage() {
+        // GIVEN
+        FilterChain chain = (request, response) -> {
+            RequestTimings.start(Stage.PARSE);
+            try {
+                Thread.sleep(STAGE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalArgumentException("Malformed basket");
+        };
+
+        // WHEN
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("POST", "/baskets"), new MockHttpServletResponse(), chain))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // THEN
+        var sample = sampler.getSamples().get(0);
+        assertThat(sample.getStagesMillis().get(Stage.PARSE.getMetricName())).isGreaterThanOrEqualTo(STAGE_MILLIS);
+    }
+}
@@ -0,0 +1,116 @@
+package digital.metro.pricing.calculator.timing;
+
+import digital.metro.pricing.calculator.dto.SlowRequestSample;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlowRequestSamplerTest {
+
+    private MutableClock clock;
+    private SlowRequestSampler sampler;
+
+    @BeforeEach
+    public void init() {
+        clock = new MutableClock(Instant.parse("2026-01-01T10:00:00Z"));
+        sampler = new SlowRequestSampler(2, 2, clock);
+    }
+
+    @Test
+    public void testKeepsSlowestRequestsOfTheMinute() {
+        // GIVEN
+        offer("/fast", 1);
+        offer("/slow", 30);
+        offer("/medium", 20);
+        offer("/fastest", 0);
+
+        // WHEN
+        var samples = sampler.getSamples();
+
+        // THEN
+        assertThat(samples.stream().map(SlowRequestSample::getUri).collect(Collectors.toList()))
+                .containsExactly("/slow", "/medium");
+        assertThat(samples.get(0).getDurationMillis()).isEqualTo(30.0);
+    }
+
+    @Test
+    public void testRetainsSamplesOfPreviousMinutesInRingBuffer() {
+        // GIVEN
+        offer("/minute-1", 10);
+        clock.advance(Duration.ofMinutes(1));
+        offer("/minute-2-a", 5);
+        offer("/minute-2-b", 6);
+        clock.advance(Duration.ofMinutes(1));
+        offer("/minute-3-a", 1);
+        offer("/minute-3-b", 2);
+        clock.advance(Duration.ofMinutes(1));
+        offer("/minute-4", 3);
+
+        // WHEN
+        var samples = sampler.getSamples();
+
+        // THEN
+        assertThat(samples.stream().map(SlowRequestSample::getUri).collect(Collectors.toList()))
+                .containsExactly("/minute-4", "/minute-3-b", "/minute-3-a", "/minute-2-b", "/minute-2-a");
+    }
+
+    @Test
+    public void testSampleContainsStageBreakdown() throws Exception {
+        // GIVEN
+        var timings = RequestTimings.begin();
+        RequestTimings.start(Stage.VALIDATE);
+        Thread.sleep(1);
+        RequestTimings.stop(Stage.VALIDATE);
+        sampler.offer("POST", "/baskets", timings.end(), timings);
+
+        // WHEN
+        var sample = sampler.getSamples().get(0);
+
+        // THEN
+        assertThat(sample.getStagesMillis()).containsOnlyKeys(
+                "parse", "validate", "price-lookup", "discount", "serialize");
+        assertThat(sample.getStagesMillis().get("validate")).isPositive();
+        assertThat(sample.getStagesMillis().get("parse")).isZero();
+    }
+
+    private void offer(String uri, long durationMillis) {
+        var timings = RequestTimings.begin();
+        timings.end();
+        sampler.offer("GET", uri, Duration.ofMillis(durationMillis).toNanos(), timings);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}